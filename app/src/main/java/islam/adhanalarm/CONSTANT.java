@@ -28,6 +28,8 @@ public class CONSTANT {
     public static final int DEFAULT_TIME_FORMAT = 0;
     public static final int NOTIFICATION_ID_OFFSET = 10;
     public static final int REQUEST_CODE_OFFSET = 10;
+    public static final int ALARM_MODE_PLAN = 0;
+    public static final int ALARM_MODE_CHAIN = 1;
     public static final Method[] CALCULATION_METHODS = {
             new Method(16, 14, 4, 0, 0, 0, Rounding.SPECIAL, net.sourceforge.jitl.Mathhab.SHAAFI, 48.5, net.sourceforge.jitl.ExtremeLatitude.GOOD_INVALID, true, 0, 0, 0, 0, 0, 0), // Jafari
             Method.ISNA,
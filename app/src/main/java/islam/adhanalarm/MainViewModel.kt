@@ -9,8 +9,6 @@ import android.os.Build
 import androidx.lifecycle.AndroidViewModel
 import androidx.lifecycle.LiveData
 import androidx.lifecycle.MutableLiveData
-import androidx.security.crypto.EncryptedSharedPreferences
-import androidx.security.crypto.MasterKey
 import androidx.lifecycle.MediatorLiveData
 import androidx.lifecycle.viewModelScope
 import islam.adhanalarm.handler.CompassHandler
@@ -44,16 +42,8 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
     private val compassHandler: CompassHandler
     private val locationHandler: LocationHandler
     private val sensorHandler: SensorHandler
-    private val masterKey = MasterKey.Builder(application, MasterKey.DEFAULT_MASTER_KEY_ALIAS)
-        .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-        .build()
-    private val settings = EncryptedSharedPreferences.create(
-        application,
-        "secret_shared_prefs",
-        masterKey,
-        EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-        EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-    )
+    private val store = SettingsStore.getInstance(application)
+    private val settings = store.preferences
 
     private val _scheduleData = MediatorLiveData<ScheduleData>()
     /**
@@ -156,12 +146,11 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
      * Loads the location from settings, or uses a default location if none is saved.
      */
     fun loadLocationFromSettings() {
-        val latitude = settings.getString(KEY_LATITUDE, null)
-        val longitude = settings.getString(KEY_LONGITUDE, null)
-        if (latitude != null && longitude != null) {
+        val snapshot = store.snapshot
+        if (snapshot.hasLocation) {
             val location = Location("settings")
-            location.latitude = latitude.toDouble()
-            location.longitude = longitude.toDouble()
+            location.latitude = snapshot.latitude
+            location.longitude = snapshot.longitude
             _location.postValue(location)
         } else {
             val location = Location("default")
@@ -184,13 +173,8 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
     fun updateData(loc: Location) {
         viewModelScope.launch {
             withContext(Dispatchers.IO) {
-                val latitude = loc.latitude.toString()
-                val longitude = loc.longitude.toString()
-                val altitude = settings.getString(KEY_ALTITUDE, "0")
-                val pressure = settings.getString(KEY_PRESSURE, "1010")
-                val temperature = settings.getString("temperature", "10")
-
-                val locationAstro = ScheduleHandler.getLocation(latitude, longitude, altitude, pressure, temperature)
+                val snapshot = store.snapshot
+                val locationAstro = ScheduleHandler.getLocation(loc.latitude, loc.longitude, snapshot.altitude, snapshot.pressure, snapshot.temperature)
 
                     // Calculate and post schedule
                     PrayerTimeScheduler.scheduleAlarms(getApplication()) { newScheduleData ->
@@ -29,14 +29,19 @@ public class PrayerTimeReceiver extends BroadcastReceiver {
                     // Do nothing
                     break;
                 default:
-                    showPrayerTimeNotification(context, intent);
+                    onPrayerAlarm(context, intent);
                     break;
             }
         } else {
-            showPrayerTimeNotification(context, intent);
+            onPrayerAlarm(context, intent);
         }
     }
 
+    private void onPrayerAlarm(Context context, Intent intent) {
+        showPrayerTimeNotification(context, intent);
+        PrayerTimeScheduler.onAlarm(context, intent.getBooleanExtra("chained", false));
+    }
+
     /**
      * Shows a notification for the prayer time.
      * If the notification is a regular prayer time notification, it will dismiss the corresponding "before" notification.
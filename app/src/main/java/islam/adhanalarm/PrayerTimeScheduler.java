@@ -1,12 +1,6 @@
 package islam.adhanalarm;
 
 import android.content.Context;
-import android.content.SharedPreferences;
-
-import androidx.security.crypto.EncryptedSharedPreferences;
-import androidx.security.crypto.MasterKey;
-
-import net.sourceforge.jitl.astro.Location;
 
 import android.location.Address;
 import android.location.Geocoder;
@@ -19,67 +13,73 @@ import java.util.concurrent.CompletableFuture;
 
 import java.util.function.Consumer;
 
+import islam.adhanalarm.handler.AlarmChain;
+import islam.adhanalarm.handler.AlarmPlan;
+import islam.adhanalarm.handler.AlarmStats;
+import islam.adhanalarm.handler.ScheduleCache;
 import islam.adhanalarm.handler.ScheduleData;
-import islam.adhanalarm.handler.ScheduleHandler;
 
 public class PrayerTimeScheduler {
 
     public static void scheduleAlarms(Context context, Consumer<ScheduleData> callback) {
-        SharedPreferences settings;
+        SettingsStore store;
         try {
-            MasterKey masterKey = new MasterKey.Builder(context, MasterKey.DEFAULT_MASTER_KEY_ALIAS)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-
-            settings = EncryptedSharedPreferences.create(
-                    context,
-                    "secret_shared_prefs",
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
+            store = SettingsStore.getInstance(context);
         } catch (Exception e) {
             e.printStackTrace();
             callback.accept(null);
             return;
         }
 
-        String latitude = settings.getString("latitude", null);
-        String longitude = settings.getString("longitude", null);
+        SettingsStore.Snapshot settings = store.getSnapshot();
 
-        if (latitude != null && longitude != null) {
-            String calculationMethodIndex = settings.getString("calculationMethodsIndex", null);
-            if (calculationMethodIndex == null) {
-                getCountryCode(context, Double.parseDouble(latitude), Double.parseDouble(longitude)).thenAccept(countryCode -> {
+        if (settings.hasLocation) {
+            if (!settings.hasCalculationMethod()) {
+                getCountryCode(context, settings.latitude, settings.longitude).thenAccept(countryCode -> {
                     String newCalculationMethodIndex = getCalculationMethodIndex(countryCode);
-                    settings.edit().putString("calculationMethodsIndex", newCalculationMethodIndex).apply();
-                    calculateAndSchedule(context, settings, latitude, longitude, newCalculationMethodIndex, callback);
+                    store.getPreferences().edit().putString("calculationMethodsIndex", newCalculationMethodIndex).apply();
+                    calculateAndSchedule(context, settings, Integer.parseInt(newCalculationMethodIndex), callback);
                 });
             } else {
-                calculateAndSchedule(context, settings, latitude, longitude, calculationMethodIndex, callback);
+                calculateAndSchedule(context, settings, settings.calculationMethodIndex, callback);
             }
         } else {
             callback.accept(null);
         }
     }
 
-    private static void calculateAndSchedule(Context context, SharedPreferences settings, String latitude, String longitude, String calculationMethodIndex, Consumer<ScheduleData> callback) {
-        String altitude = settings.getString("altitude", "0");
-        String pressure = settings.getString("pressure", "1010");
-        String temperature = settings.getString("temperature", "10");
-        Location locationAstro = ScheduleHandler.getLocation(latitude, longitude, altitude, pressure, temperature);
-        String roundingTypeIndex = settings.getString("roundingTypesIndex", String.valueOf(CONSTANT.DEFAULT_ROUNDING_TYPE));
-        int offsetMinutes = 0;
-        try {
-            offsetMinutes = Integer.parseInt(settings.getString("offsetMinutes", "0"));
-        } catch (NumberFormatException e) {
-            // Ignore and use 0
+    private static void calculateAndSchedule(Context context, SettingsStore.Snapshot settings, int calculationMethodIndex, Consumer<ScheduleData> callback) {
+        ScheduleData newScheduleData = ScheduleCache.getInstance(context).getSchedule(settings, calculationMethodIndex);
+        if (settings.alarmMode == CONSTANT.ALARM_MODE_CHAIN) {
+            AlarmPlan.clear(context);
+            AlarmChain.update(context, settings, calculationMethodIndex);
+        } else {
+            AlarmChain.clear(context);
+            AlarmPlan.update(context, settings, calculationMethodIndex);
         }
-        ScheduleData newScheduleData = ScheduleHandler.calculate(locationAstro, calculationMethodIndex, roundingTypeIndex, offsetMinutes);
-        ScheduleHandler.scheduleAlarms(context, newScheduleData);
         callback.accept(newScheduleData);
     }
 
+    /**
+     * Follows up on a prayer alarm that went off: a chained alarm arms the next one of its queue,
+     * otherwise the alarm plan rolls forward, which only sets the alarms of a day new to the plan.
+     *
+     * @param chained whether the alarm was set by the single next alarm mode
+     */
+    public static void onAlarm(Context context, boolean chained) {
+        AlarmStats.recordWakeup(context, chained ? CONSTANT.ALARM_MODE_CHAIN : CONSTANT.ALARM_MODE_PLAN);
+        if (chained) {
+            try {
+                SettingsStore.Snapshot settings = SettingsStore.getInstance(context).getSnapshot();
+                if (settings.alarmMode == CONSTANT.ALARM_MODE_CHAIN && AlarmChain.armNext(context, settings)) return;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+        scheduleAlarms(context, scheduleData -> {});
+    }
+
     public static CompletableFuture<String> getCountryCode(Context context, double latitude, double longitude) {
         return CompletableFuture.supplyAsync(() -> {
             Geocoder geocoder = new Geocoder(context, Locale.getDefault());
@@ -16,11 +16,10 @@ import android.util.Log;
 
 import androidx.annotation.Nullable;
 import androidx.lifecycle.Observer;
-import androidx.security.crypto.EncryptedSharedPreferences;
-import androidx.security.crypto.MasterKey;
 
 import androidx.lifecycle.ViewModelProvider;
 
+import islam.adhanalarm.handler.AlarmStats;
 import islam.adhanalarm.handler.SensorData;
 
 import java.io.IOException;
@@ -37,7 +36,8 @@ public class SettingsFragment extends PreferenceFragment implements SharedPrefer
             "beforePrayerNotification",
             "altitude",
             "pressure",
-            "calculationMethodsIndex"
+            "calculationMethodsIndex",
+            "alarmMode"
     ));
     private SharedPreferences mEncryptedSharedPreferences;
     private MainViewModel mViewModel;
@@ -52,17 +52,7 @@ public class SettingsFragment extends PreferenceFragment implements SharedPrefer
         mViewModel = new MainViewModel(getActivity().getApplication());
 
         try {
-            MasterKey masterKey = new MasterKey.Builder(getActivity(), MasterKey.DEFAULT_MASTER_KEY_ALIAS)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-
-            mEncryptedSharedPreferences = EncryptedSharedPreferences.create(
-                    getActivity(),
-                    "secret_shared_prefs",
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
+            mEncryptedSharedPreferences = SettingsStore.getInstance(getActivity()).getPreferences();
         } catch (GeneralSecurityException | IOException e) {
             Log.e("SettingsFragment", "Failed to create encrypted shared preferences", e);
             getActivity().finish(); // Can't work without preferences
@@ -196,6 +186,8 @@ public class SettingsFragment extends PreferenceFragment implements SharedPrefer
 
         // Update calculation method summary
         updateCalculationMethodSummary();
+
+        updateAlarmWakeupsSummary();
     }
 
     @Override
@@ -223,6 +215,12 @@ public class SettingsFragment extends PreferenceFragment implements SharedPrefer
                 updateCalculationMethodSummary();
             }
 
+            if (key.equals("alarmMode")) {
+                Intent updateIntent = new Intent(getActivity(), PrayerTimeReceiver.class);
+                updateIntent.setAction(CONSTANT.ACTION_UPDATE_PRAYER_TIMES);
+                getActivity().sendBroadcast(updateIntent);
+            }
+
         // Broadcast intent to update widget
         Intent intent = new Intent(getActivity(), PrayerTimeReceiver.class);
         intent.setAction(CONSTANT.ACTION_UPDATE_WIDGET);
@@ -244,6 +242,26 @@ public class SettingsFragment extends PreferenceFragment implements SharedPrefer
         }
     }
 
+    // Wakeups and alarm manager calls of each alarm mode, averaged over the days of the last week it was used
+    private void updateAlarmWakeupsSummary() {
+        String[] modes = getResources().getStringArray(R.array.alarm_modes);
+        StringBuilder summary = new StringBuilder();
+        for (int mode = CONSTANT.ALARM_MODE_PLAN; mode <= CONSTANT.ALARM_MODE_CHAIN; mode++) {
+            int[] wakeups = AlarmStats.getDailyWakeups(getActivity(), mode, 7);
+            int[] calls = AlarmStats.getDailyCalls(getActivity(), mode, 7);
+            int days = 0, totalWakeups = 0, totalCalls = 0;
+            for (int i = 0; i < wakeups.length; i++) {
+                if (wakeups[i] > 0 || calls[i] > 0) days++;
+                totalWakeups += wakeups[i];
+                totalCalls += calls[i];
+            }
+            if (days == 0) continue;
+            if (summary.length() > 0) summary.append('\n');
+            summary.append(getString(R.string.alarm_wakeups_summary, modes[mode], wakeups[0], (double) totalWakeups / days, (double) totalCalls / days));
+        }
+        findPreference("alarmWakeups").setSummary(summary);
+    }
+
     private void updateSummary(EditTextPreference preference) {
         if (preference != null) {
             preference.setSummary(preference.getText());
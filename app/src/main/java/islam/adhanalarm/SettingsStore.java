@@ -0,0 +1,144 @@
+package islam.adhanalarm;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.security.crypto.EncryptedSharedPreferences;
+import androidx.security.crypto.MasterKey;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Process wide access to the encrypted settings. The master key and the
+ * encrypted preferences are created once, on first use, instead of on every
+ * alarm, boot, time change and widget refresh.
+ * <p>
+ * The values the schedule depends on are also kept as an immutable, typed
+ * {@link Snapshot}. It is read again whenever a setting changes through
+ * {@link #getPreferences()}, so all writes must go through this store.
+ */
+public final class SettingsStore implements SharedPreferences.OnSharedPreferenceChangeListener {
+
+    private static final String FILE_NAME = "secret_shared_prefs";
+
+    private static volatile SettingsStore sInstance;
+
+    private final SharedPreferences mPreferences;
+
+    private volatile Snapshot mSnapshot;
+
+    private SettingsStore(Context context) throws GeneralSecurityException, IOException {
+        MasterKey masterKey = new MasterKey.Builder(context, MasterKey.DEFAULT_MASTER_KEY_ALIAS)
+                .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
+                .build();
+
+        mPreferences = EncryptedSharedPreferences.create(
+                context,
+                FILE_NAME,
+                masterKey,
+                EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
+        );
+        mSnapshot = Snapshot.read(mPreferences);
+        mPreferences.registerOnSharedPreferenceChangeListener(this);
+    }
+
+    public static SettingsStore getInstance(Context context) throws GeneralSecurityException, IOException {
+        SettingsStore store = sInstance;
+        if (store == null) {
+            synchronized (SettingsStore.class) {
+                store = sInstance;
+                if (store == null) {
+                    store = new SettingsStore(context.getApplicationContext());
+                    sInstance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * The encrypted preferences, for writes and for the settings that are
+     * not part of the snapshot
+     */
+    public SharedPreferences getPreferences() {
+        return mPreferences;
+    }
+
+    public Snapshot getSnapshot() {
+        return mSnapshot;
+    }
+
+    @Override
+    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+        mSnapshot = Snapshot.read(mPreferences);
+    }
+
+    /**
+     * Settings the schedule is computed from, parsed once. A value that is
+     * missing or cannot be parsed takes its default.
+     */
+    public static final class Snapshot {
+        public static final int NO_CALCULATION_METHOD = -1;
+
+        public final boolean hasLocation;
+        public final double latitude;
+        public final double longitude;
+        public final double altitude;
+        public final double pressure;
+        public final double temperature;
+        public final int calculationMethodIndex;
+        public final int roundingTypeIndex;
+        public final int offsetMinutes;
+        public final int beforePrayerNotificationMinutes;
+        public final int alarmMode;
+
+        private Snapshot(SharedPreferences settings) {
+            hasLocation = settings.getString("latitude", null) != null && settings.getString("longitude", null) != null;
+            latitude = getDouble(settings, "latitude", 0);
+            longitude = getDouble(settings, "longitude", 0);
+            altitude = getDouble(settings, "altitude", 0);
+            pressure = getDouble(settings, "pressure", 1010);
+            temperature = getDouble(settings, "temperature", 10);
+            calculationMethodIndex = getInt(settings, "calculationMethodsIndex", NO_CALCULATION_METHOD);
+            roundingTypeIndex = getInt(settings, "roundingTypesIndex", Integer.parseInt(CONSTANT.DEFAULT_ROUNDING_TYPE));
+            offsetMinutes = getInt(settings, "offsetMinutes", 0);
+            beforePrayerNotificationMinutes = getInt(settings, "beforePrayerNotification", 0);
+            alarmMode = getInt(settings, "alarmMode", CONSTANT.ALARM_MODE_PLAN);
+        }
+
+        static Snapshot read(SharedPreferences settings) {
+            return new Snapshot(settings);
+        }
+
+        /**
+         * False until the calculation method has been detected from the country of the location
+         */
+        public boolean hasCalculationMethod() {
+            return calculationMethodIndex != NO_CALCULATION_METHOD;
+        }
+
+        private static double getDouble(SharedPreferences settings, String key, double defaultValue) {
+            String value = settings.getString(key, null);
+            if (value == null) return defaultValue;
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+
+        // Edit text preferences store strings, but some settings were written as ints
+        private static int getInt(SharedPreferences settings, String key, int defaultValue) {
+            try {
+                String value = settings.getString(key, null);
+                return value == null ? defaultValue : Integer.parseInt(value.trim());
+            } catch (ClassCastException e) {
+                return settings.getInt(key, defaultValue);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+    }
+}
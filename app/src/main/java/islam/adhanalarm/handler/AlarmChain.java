@@ -0,0 +1,190 @@
+package islam.adhanalarm.handler;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import islam.adhanalarm.CONSTANT;
+import islam.adhanalarm.R;
+import islam.adhanalarm.SettingsStore;
+
+/**
+ * Alarm mode keeping a single pending exact alarm. The alarms of the next
+ * {@link AlarmPlan#DAYS} days are computed once into a queue kept on disk,
+ * only the first one is set, and the receiver arms the following one when it
+ * goes off. The queue is computed again when less than a day of it is left.
+ * <p>
+ * The broadcast of a chained alarm carries the "chained" extra.
+ */
+public final class AlarmChain {
+
+    static final int REQUEST_CODE = 2000;
+
+    private static final String TAG = "AlarmChain";
+    private static final String FILE_NAME = "alarm_chain.bin";
+    private static final int MAGIC = 0x41444348; // "ADCH"
+    private static final int VERSION = 1;
+    private static final int NOTHING_ARMED = -1;
+    private static final long REFILL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private AlarmChain() {
+    }
+
+    /**
+     * Computes the queue again and arms its first alarm
+     *
+     * @param settings the settings the times depend on
+     * @param calculationMethodIndex the calculation method, which may not be saved in the settings yet
+     * @return the number of alarms set or cancelled
+     */
+    public static synchronized int update(Context context, SettingsStore.Snapshot settings, int calculationMethodIndex) {
+        long now = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        List<AlarmPlan.Alarm> queue = AlarmPlan.plan(ScheduleHandler.getLocation(settings),
+                ScheduleHandler.getMethod(calculationMethodIndex, settings.roundingTypeIndex),
+                LocalDate.now(zone), zone, settings.offsetMinutes, settings.beforePrayerNotificationMinutes, now);
+
+        State state = load(context);
+        state.queue = queue;
+        return arm(context, settings, state, now);
+    }
+
+    /**
+     * Arms the alarm following the one that went off
+     *
+     * @return false when the queue runs out within a day and must be computed again
+     */
+    public static synchronized boolean armNext(Context context, SettingsStore.Snapshot settings) {
+        long now = System.currentTimeMillis();
+        State state = load(context);
+        if (state.queue.isEmpty() || state.queue.get(state.queue.size() - 1).triggerMillis - now < REFILL_MILLIS) {
+            return false;
+        }
+        arm(context, settings, state, now);
+        return true;
+    }
+
+    /**
+     * Cancels the pending alarm, when another mode takes over
+     *
+     * @return the number of alarms cancelled
+     */
+    public static synchronized int clear(Context context) {
+        File file = getFile(context);
+        if (!file.exists()) return 0;
+
+        State state = load(context);
+        int calls = 0;
+        if (state.armedRequestCode != NOTHING_ARMED) {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            calls = AlarmPlan.cancel(context, alarmManager, REQUEST_CODE);
+        }
+        new AtomicFile(file).delete();
+        AlarmStats.recordCalls(context, CONSTANT.ALARM_MODE_CHAIN, calls);
+        return calls;
+    }
+
+    // Drops the alarms that went off and sets the first one left, unless it is already pending
+    private static int arm(Context context, SettingsStore.Snapshot settings, State state, long now) {
+        int first = 0;
+        while (first < state.queue.size() && state.queue.get(first).triggerMillis <= now) first++;
+        state.queue = new ArrayList<>(state.queue.subList(first, state.queue.size()));
+
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        int calls = 0;
+        if (state.queue.isEmpty()) {
+            if (state.armedRequestCode != NOTHING_ARMED) calls += AlarmPlan.cancel(context, alarmManager, REQUEST_CODE);
+            state.armedRequestCode = NOTHING_ARMED;
+        } else {
+            AlarmPlan.Alarm next = state.queue.get(0);
+            if (next.requestCode != state.armedRequestCode || next.triggerMillis != state.armedMillis
+                    || AlarmPlan.getExisting(context, REQUEST_CODE) == null) {
+                String[] prayerNames = context.getResources().getStringArray(R.array.prayer_names);
+                Intent intent = AlarmPlan.getIntent(context, next, prayerNames, settings.beforePrayerNotificationMinutes);
+                intent.putExtra("chained", true);
+                PendingIntent pendingIntent = PendingIntent.getBroadcast(context, REQUEST_CODE, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+                alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next.triggerMillis, pendingIntent);
+                calls++;
+            }
+            state.armedRequestCode = next.requestCode;
+            state.armedMillis = next.triggerMillis;
+        }
+        save(context, state);
+
+        Log.d(TAG, state.queue.size() + " alarms queued, " + calls + " set or cancelled");
+        AlarmStats.recordCalls(context, CONSTANT.ALARM_MODE_CHAIN, calls);
+        return calls;
+    }
+
+    private static File getFile(Context context) {
+        return new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+    }
+
+    private static final class State {
+        List<AlarmPlan.Alarm> queue = new ArrayList<>();
+        int armedRequestCode = NOTHING_ARMED;
+        long armedMillis;
+    }
+
+    private static State load(Context context) {
+        State state = new State();
+        try (DataInputStream in = new DataInputStream(new AtomicFile(getFile(context)).openRead())) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return state;
+            int armedRequestCode = in.readInt();
+            long armedMillis = in.readLong();
+            int count = in.readInt();
+            List<AlarmPlan.Alarm> queue = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                queue.add(new AlarmPlan.Alarm(in.readInt(), in.readLong(), in.readShort(), in.readBoolean(), in.readLong()));
+            }
+            state.armedRequestCode = armedRequestCode;
+            state.armedMillis = armedMillis;
+            state.queue = queue;
+        } catch (FileNotFoundException e) {
+            // Nothing queued yet
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring unreadable queue", e);
+        }
+        return state;
+    }
+
+    private static void save(Context context, State state) {
+        AtomicFile file = new AtomicFile(getFile(context));
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(state.armedRequestCode);
+            out.writeLong(state.armedMillis);
+            out.writeInt(state.queue.size());
+            for (AlarmPlan.Alarm alarm : state.queue) {
+                out.writeInt(alarm.requestCode);
+                out.writeLong(alarm.triggerMillis);
+                out.writeShort(alarm.prayer);
+                out.writeBoolean(alarm.before);
+                out.writeLong(alarm.prayerMillis);
+            }
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write queue", e);
+            if (stream != null) file.failWrite(stream);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package islam.adhanalarm.handler;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.PrayerTable;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import islam.adhanalarm.CONSTANT;
+import islam.adhanalarm.PrayerTimeReceiver;
+import islam.adhanalarm.R;
+import islam.adhanalarm.SettingsStore;
+
+/**
+ * Rolling plan of the prayer and "before" alarms of the next {@link #DAYS}
+ * days, so the alarms keep going off even if the app is not opened for days.
+ * <p>
+ * The times come from the zone aware range of Jitl, as epoch seconds. The
+ * alarms registered with the alarm manager are remembered in private
+ * preferences, and an update only sets the alarms whose time changed and
+ * cancels the ones no longer planned. An update with the same settings on
+ * the same day makes no call to the alarm manager.
+ */
+public final class AlarmPlan {
+
+    public static final int DAYS = 7;
+
+    // Codes of the alarms set before the plan, cancelled once
+    private static final int LEGACY_REQUEST_CODES = CONSTANT.NEXT_FAJR + 1;
+
+    // Request codes repeat every DAY_SLOTS days, well after an alarm of the plan went off
+    static final int REQUEST_CODE_BASE = 1000;
+    static final int DAY_SLOTS = 16;
+    private static final int CODES_PER_DAY = 16;
+
+    private static final String TAG = "AlarmPlan";
+    private static final String PREFERENCES_NAME = "alarm_plan";
+    private static final String KEY_PREFIX = "alarm_";
+    private static final String KEY_LABELS = "labels";
+    private static final String KEY_LEGACY_CANCELLED = "legacy_cancelled";
+
+    private AlarmPlan() {
+    }
+
+    /**
+     * One alarm of the plan
+     */
+    static final class Alarm {
+        final int requestCode;
+        final long triggerMillis;
+        final short prayer;
+        final boolean before;
+        final long prayerMillis;
+
+        Alarm(int requestCode, long triggerMillis, short prayer, boolean before, long prayerMillis) {
+            this.requestCode = requestCode;
+            this.triggerMillis = triggerMillis;
+            this.prayer = prayer;
+            this.before = before;
+            this.prayerMillis = prayerMillis;
+        }
+    }
+
+    /**
+     * Brings the registered alarms in line with the plan of the next days
+     *
+     * @param settings the settings the times depend on
+     * @param calculationMethodIndex the calculation method, which may not be saved in the settings yet
+     * @return the number of alarms set or cancelled
+     */
+    public static synchronized int update(Context context, SettingsStore.Snapshot settings, int calculationMethodIndex) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        String[] prayerNames = context.getResources().getStringArray(R.array.prayer_names);
+        long now = System.currentTimeMillis();
+
+        int calls = cancelLegacy(context, alarmManager, preferences);
+        Map<Integer, Long> registered = getRegistered(preferences);
+        String labels = getLabels(prayerNames, settings.beforePrayerNotificationMinutes);
+        // The alarms carry stale names, or were lost on reboot or force stop: set them all again,
+        // but still cancel those no longer planned
+        boolean rearm = !labels.equals(preferences.getString(KEY_LABELS, null)) || !isArmed(context, registered, now);
+
+        Method method = ScheduleHandler.getMethod(calculationMethodIndex, settings.roundingTypeIndex);
+        ZoneId zone = ZoneId.systemDefault();
+        List<Alarm> wanted = plan(ScheduleHandler.getLocation(settings), method, LocalDate.now(zone), zone,
+                settings.offsetMinutes, settings.beforePrayerNotificationMinutes, now);
+
+        for (Alarm alarm : getChanged(rearm ? Collections.<Integer, Long>emptyMap() : registered, wanted)) {
+            Intent intent = getIntent(context, alarm, prayerNames, settings.beforePrayerNotificationMinutes);
+            PendingIntent pendingIntent = PendingIntent.getBroadcast(context, alarm.requestCode, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, alarm.triggerMillis, pendingIntent);
+            calls++;
+        }
+        for (int requestCode : getRemoved(registered, wanted, now)) {
+            calls += cancel(context, alarmManager, requestCode);
+        }
+
+        SharedPreferences.Editor editor = preferences.edit().clear()
+                .putBoolean(KEY_LEGACY_CANCELLED, true)
+                .putString(KEY_LABELS, labels);
+        for (Alarm alarm : wanted) {
+            editor.putLong(KEY_PREFIX + alarm.requestCode, alarm.triggerMillis);
+        }
+        editor.apply();
+
+        Log.d(TAG, wanted.size() + " alarms planned, " + calls + " set or cancelled");
+        AlarmStats.recordCalls(context, CONSTANT.ALARM_MODE_PLAN, calls);
+        return calls;
+    }
+
+    /**
+     * Cancels every alarm of the plan, when another mode takes over
+     *
+     * @return the number of alarms cancelled
+     */
+    public static synchronized int clear(Context context) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+
+        int calls = cancelLegacy(context, alarmManager, preferences);
+        Map<Integer, Long> registered = getRegistered(preferences);
+        if (!registered.isEmpty()) {
+            for (Map.Entry<Integer, Long> entry : registered.entrySet()) {
+                if (entry.getValue() > now) calls += cancel(context, alarmManager, entry.getKey());
+            }
+            preferences.edit().clear().putBoolean(KEY_LEGACY_CANCELLED, true).apply();
+        }
+        AlarmStats.recordCalls(context, CONSTANT.ALARM_MODE_PLAN, calls);
+        return calls;
+    }
+
+    /**
+     * The alarms still to go off in the days from first, in time order
+     */
+    static List<Alarm> plan(Location location, Method method, LocalDate first, ZoneId zone, int offsetMinutes, int beforeMinutes, long nowMillis) {
+        long[] seconds = new long[DAYS * PrayerTable.PRAYERS];
+        new Jitl(location, method).getEpochSecondsRange(new SimpleDate(first.getDayOfMonth(), first.getMonthValue(), first.getYear()), DAYS, zone, seconds);
+
+        List<Alarm> alarms = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            long epochDay = first.toEpochDay() + day;
+            for (short i = CONSTANT.FAJR; i <= CONSTANT.ISHAA; i++) {
+                if (i == CONSTANT.SUNRISE) continue; // Don't notify for sunrise
+                long second = seconds[day * PrayerTable.PRAYERS + i];
+                if (second == PrayerTable.INVALID_EPOCH_SECOND) continue;
+
+                long prayerMillis = (second + offsetMinutes * 60L) * 1000;
+                if (beforeMinutes > 0) {
+                    long beforeMillis = prayerMillis - beforeMinutes * 60000L;
+                    if (beforeMillis > nowMillis) {
+                        alarms.add(new Alarm(getRequestCode(epochDay, i, true), beforeMillis, i, true, prayerMillis));
+                    }
+                }
+                if (prayerMillis > nowMillis) {
+                    alarms.add(new Alarm(getRequestCode(epochDay, i, false), prayerMillis, i, false, prayerMillis));
+                }
+            }
+        }
+        return alarms;
+    }
+
+    static int getRequestCode(long epochDay, short prayer, boolean before) {
+        return REQUEST_CODE_BASE + (int) Math.floorMod(epochDay, DAY_SLOTS) * CODES_PER_DAY + prayer * 2 + (before ? 1 : 0);
+    }
+
+    /**
+     * The planned alarms that are not registered for the same time
+     */
+    static List<Alarm> getChanged(Map<Integer, Long> registered, List<Alarm> wanted) {
+        List<Alarm> changed = new ArrayList<>();
+        for (Alarm alarm : wanted) {
+            Long triggerMillis = registered.get(alarm.requestCode);
+            if (triggerMillis == null || triggerMillis != alarm.triggerMillis) changed.add(alarm);
+        }
+        return changed;
+    }
+
+    /**
+     * The registered alarms no longer planned. Those that already went off are left alone.
+     */
+    static List<Integer> getRemoved(Map<Integer, Long> registered, List<Alarm> wanted, long nowMillis) {
+        Set<Integer> planned = new HashSet<>();
+        for (Alarm alarm : wanted) {
+            planned.add(alarm.requestCode);
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : registered.entrySet()) {
+            if (entry.getValue() > nowMillis && !planned.contains(entry.getKey())) removed.add(entry.getKey());
+        }
+        return removed;
+    }
+
+    /**
+     * The broadcast of an alarm, with the extras the receiver shows it from
+     */
+    static Intent getIntent(Context context, Alarm alarm, String[] prayerNames, int beforeMinutes) {
+        Intent intent = new Intent(context, PrayerTimeReceiver.class);
+        if (alarm.before) {
+            intent.putExtra("prayer_name", prayerNames[alarm.prayer] + " (in " + beforeMinutes + " minutes)");
+            intent.putExtra("notification_id", alarm.prayer + CONSTANT.NOTIFICATION_ID_OFFSET);
+            intent.putExtra("prayer_time_millis", alarm.prayerMillis);
+        } else {
+            intent.putExtra("prayer_name", prayerNames[alarm.prayer]);
+            intent.putExtra("notification_id", (int) alarm.prayer);
+        }
+        return intent;
+    }
+
+    private static int cancelLegacy(Context context, AlarmManager alarmManager, SharedPreferences preferences) {
+        if (preferences.getBoolean(KEY_LEGACY_CANCELLED, false)) return 0;
+        int calls = 0;
+        for (int i = 0; i < LEGACY_REQUEST_CODES; i++) {
+            calls += cancel(context, alarmManager, i) + cancel(context, alarmManager, i + CONSTANT.REQUEST_CODE_OFFSET);
+        }
+        preferences.edit().putBoolean(KEY_LEGACY_CANCELLED, true).apply();
+        return calls;
+    }
+
+    private static Map<Integer, Long> getRegistered(SharedPreferences preferences) {
+        Map<Integer, Long> registered = new HashMap<>();
+        for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+            if (entry.getKey().startsWith(KEY_PREFIX) && entry.getValue() instanceof Long) {
+                registered.put(Integer.parseInt(entry.getKey().substring(KEY_PREFIX.length())), (Long) entry.getValue());
+            }
+        }
+        return registered;
+    }
+
+    private static String getLabels(String[] prayerNames, int beforeMinutes) {
+        return String.join("|", prayerNames) + "|" + beforeMinutes;
+    }
+
+    // One pending alarm is enough to tell whether the registered set survived
+    private static boolean isArmed(Context context, Map<Integer, Long> registered, long nowMillis) {
+        for (Map.Entry<Integer, Long> entry : registered.entrySet()) {
+            if (entry.getValue() > nowMillis) {
+                return getExisting(context, entry.getKey()) != null;
+            }
+        }
+        return true;
+    }
+
+    static PendingIntent getExisting(Context context, int requestCode) {
+        Intent intent = new Intent(context, PrayerTimeReceiver.class);
+        return PendingIntent.getBroadcast(context, requestCode, intent, PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    static int cancel(Context context, AlarmManager alarmManager, int requestCode) {
+        PendingIntent pendingIntent = getExisting(context, requestCode);
+        if (pendingIntent == null) return 0;
+        alarmManager.cancel(pendingIntent);
+        pendingIntent.cancel();
+        return 1;
+    }
+}
@@ -0,0 +1,88 @@
+package islam.adhanalarm.handler;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Daily counters of the alarms that woke the device and of the calls made to
+ * the alarm manager, for each alarm mode, so the battery cost of the modes can
+ * be compared on a real device. The counters of the last {@link #DAYS} days
+ * are kept.
+ */
+public final class AlarmStats {
+
+    public static final int DAYS = 14;
+
+    private static final String PREFERENCES_NAME = "alarm_stats";
+    private static final String WAKEUPS = "wakeups_";
+    private static final String CALLS = "calls_";
+
+    private AlarmStats() {
+    }
+
+    /**
+     * Counts an alarm delivered to the receiver
+     */
+    public static void recordWakeup(Context context, int alarmMode) {
+        add(context, WAKEUPS, alarmMode, 1);
+    }
+
+    /**
+     * Counts alarms set or cancelled with the alarm manager
+     */
+    public static void recordCalls(Context context, int alarmMode, int calls) {
+        if (calls > 0) add(context, CALLS, alarmMode, calls);
+    }
+
+    /**
+     * Wakeups of the last days in a mode, today first
+     */
+    public static int[] getDailyWakeups(Context context, int alarmMode, int days) {
+        return getDaily(context, WAKEUPS, alarmMode, days);
+    }
+
+    /**
+     * Alarm manager calls of the last days in a mode, today first
+     */
+    public static int[] getDailyCalls(Context context, int alarmMode, int days) {
+        return getDaily(context, CALLS, alarmMode, days);
+    }
+
+    private static synchronized void add(Context context, String counter, int alarmMode, int count) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        long today = LocalDate.now().toEpochDay();
+        String key = getKey(counter, alarmMode, today);
+
+        SharedPreferences.Editor editor = preferences.edit();
+        editor.putInt(key, preferences.getInt(key, 0) + count);
+        for (String old : preferences.getAll().keySet()) {
+            if (getEpochDay(old) <= today - DAYS) editor.remove(old);
+        }
+        editor.apply();
+    }
+
+    private static int[] getDaily(Context context, String counter, int alarmMode, int days) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        long today = LocalDate.now().toEpochDay();
+        int[] daily = new int[days];
+        for (int i = 0; i < days; i++) {
+            daily[i] = preferences.getInt(getKey(counter, alarmMode, today - i), 0);
+        }
+        return daily;
+    }
+
+    private static String getKey(String counter, int alarmMode, long epochDay) {
+        return counter + alarmMode + "_" + epochDay;
+    }
+
+    private static long getEpochDay(String key) {
+        try {
+            return Long.parseLong(key.substring(key.lastIndexOf('_') + 1));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
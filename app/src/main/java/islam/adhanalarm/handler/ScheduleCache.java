@@ -0,0 +1,246 @@
+package islam.adhanalarm.handler;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.PrayerEngine;
+import net.sourceforge.jitl.astro.Location;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TreeMap;
+
+import islam.adhanalarm.CONSTANT;
+import islam.adhanalarm.SettingsStore;
+
+/**
+ * Small on-disk cache of computed days, so the receivers, the widgets and the
+ * main screen do not run the prayer time engine again for a day already
+ * computed, even in a new process.
+ * <p>
+ * A day is stored as the epoch milliseconds of its seven times (the six
+ * prayers and the next fajr) and their extreme switches, keyed by its local
+ * date. A missing day is computed with the days after it, up to a week, so
+ * the following days are read from the file too; past days are dropped. The
+ * file also holds the fingerprint of everything the times depend on:
+ * location, sensor values, every parameter of the calculation method,
+ * rounding, offset, time zone, engine and library version. Days computed
+ * with another fingerprint are dropped.
+ */
+public final class ScheduleCache {
+
+    private static final String TAG = "ScheduleCache";
+    private static final String FILE_NAME = "schedule_cache.bin";
+    private static final int MAGIC = 0x41445343; // "ADSC"
+    private static final int VERSION = 2;
+    private static final int TIMES = CONSTANT.NEXT_FAJR + 1;
+    // Days computed on a miss, today included
+    private static final int DAYS = 7;
+
+    private static volatile ScheduleCache sInstance;
+
+    private final AtomicFile mFile;
+    private final TreeMap<Long, Day> mDays = new TreeMap<>();
+    private long mFingerprint;
+    private boolean mLoaded;
+    private long mHits, mMisses;
+
+    private ScheduleCache(File file) {
+        mFile = new AtomicFile(file);
+    }
+
+    public static ScheduleCache getInstance(Context context) {
+        ScheduleCache cache = sInstance;
+        if (cache == null) {
+            synchronized (ScheduleCache.class) {
+                cache = sInstance;
+                if (cache == null) {
+                    cache = new ScheduleCache(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                    sInstance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    public ScheduleData getSchedule(SettingsStore.Snapshot settings, int calculationMethodIndex) {
+        return getSchedule(ScheduleHandler.getEngineFactory(), settings, calculationMethodIndex);
+    }
+
+    /**
+     * Today's schedule, read from the cache or computed and stored with the days after it
+     *
+     * @param engines the engines computing a missing day
+     * @param settings the settings the times depend on
+     * @param calculationMethodIndex the calculation method, which may not be saved in the settings yet
+     */
+    public ScheduleData getSchedule(PrayerEngine.Factory engines, SettingsStore.Snapshot settings, int calculationMethodIndex) {
+        return getSchedule(engines, settings, calculationMethodIndex, LocalDate.now());
+    }
+
+    synchronized ScheduleData getSchedule(PrayerEngine.Factory engines, SettingsStore.Snapshot settings, int calculationMethodIndex, LocalDate date) {
+        long fingerprint = fingerprint(engines, settings, calculationMethodIndex);
+        long today = date.toEpochDay();
+
+        load();
+        if (fingerprint != mFingerprint) {
+            mDays.clear();
+            mFingerprint = fingerprint;
+        }
+
+        Day day = mDays.get(today);
+        if (day != null) {
+            mHits++;
+            return day.toScheduleData();
+        }
+
+        mMisses++;
+        ScheduleData scheduleData = null;
+        for (int i = 0; i < DAYS; i++, date = date.plusDays(1)) {
+            if (i > 0 && mDays.containsKey(today + i)) continue;
+            Location location = ScheduleHandler.getLocation(settings, date);
+            GregorianCalendar calendar = new GregorianCalendar(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+            ScheduleData computed = ScheduleHandler.calculate(engines, location, calculationMethodIndex, settings.roundingTypeIndex, settings.offsetMinutes, calendar);
+            mDays.put(today + i, new Day(computed));
+            if (i == 0) scheduleData = computed;
+        }
+        prune(today);
+        save();
+        return scheduleData;
+    }
+
+    /**
+     * Drops every day, for example after a change the fingerprint does not cover
+     */
+    public synchronized void clear() {
+        mDays.clear();
+        mLoaded = true;
+        mFile.delete();
+    }
+
+    public synchronized long getHitCount() {
+        return mHits;
+    }
+
+    public synchronized long getMissCount() {
+        return mMisses;
+    }
+
+    // Past days are never asked again
+    private void prune(long today) {
+        mDays.headMap(today).clear();
+    }
+
+    private void load() {
+        if (mLoaded) return;
+        mLoaded = true;
+        try (DataInputStream in = new DataInputStream(mFile.openRead())) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            long fingerprint = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long epochDay = in.readLong();
+                int extremes = in.readInt();
+                long[] millis = new long[TIMES];
+                for (int j = 0; j < TIMES; j++) {
+                    millis[j] = in.readLong();
+                }
+                mDays.put(epochDay, new Day(millis, extremes));
+            }
+            mFingerprint = fingerprint;
+        } catch (FileNotFoundException e) {
+            // Nothing cached yet
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring unreadable cache", e);
+            mDays.clear();
+        }
+    }
+
+    private void save() {
+        FileOutputStream stream = null;
+        try {
+            stream = mFile.startWrite();
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(mFingerprint);
+            out.writeInt(mDays.size());
+            for (Map.Entry<Long, Day> entry : mDays.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue().extremes);
+                for (long millis : entry.getValue().millis) {
+                    out.writeLong(millis);
+                }
+            }
+            out.flush();
+            mFile.finishWrite(stream);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write cache", e);
+            if (stream != null) mFile.failWrite(stream);
+        }
+    }
+
+    static long fingerprint(PrayerEngine.Factory engines, SettingsStore.Snapshot settings, int calculationMethodIndex) {
+        String key = settings.latitude + "|" + settings.longitude + "|" + settings.altitude
+                + "|" + settings.pressure + "|" + settings.temperature
+                + "|" + calculationMethodIndex + "|" + settings.roundingTypeIndex
+                + "|" + ScheduleHandler.getMethod(calculationMethodIndex, settings.roundingTypeIndex)
+                + "|" + settings.offsetMinutes + "|" + ZoneId.systemDefault().getId()
+                + "|" + engines.getName() + "|" + Jitl.getMajorVersion() + "." + Jitl.getMinorVersion();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            long fingerprint = 0;
+            for (int i = 0; i < 8; i++) {
+                fingerprint = fingerprint << 8 | (digest[i] & 0xff);
+            }
+            return fingerprint;
+        } catch (NoSuchAlgorithmException e) {
+            // Every platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Day {
+        final long[] millis;
+        final int extremes;
+
+        Day(long[] millis, int extremes) {
+            this.millis = millis;
+            this.extremes = extremes;
+        }
+
+        Day(ScheduleData scheduleData) {
+            millis = new long[TIMES];
+            int bits = 0;
+            for (int i = 0; i < TIMES; i++) {
+                millis[i] = scheduleData.schedule[i].getTimeInMillis();
+                if (scheduleData.extremes[i]) bits |= 1 << i;
+            }
+            extremes = bits;
+        }
+
+        ScheduleData toScheduleData() {
+            GregorianCalendar[] schedule = new GregorianCalendar[TIMES];
+            boolean[] extremeTimes = new boolean[TIMES];
+            for (int i = 0; i < TIMES; i++) {
+                schedule[i] = new GregorianCalendar();
+                schedule[i].setTimeInMillis(millis[i]);
+                extremeTimes[i] = (extremes & 1 << i) != 0;
+            }
+            return new ScheduleData(schedule, extremeTimes, ScheduleHandler.getNextTimeIndex(schedule));
+        }
+    }
+}
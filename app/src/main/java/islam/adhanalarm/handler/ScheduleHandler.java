@@ -1,52 +1,92 @@
 package islam.adhanalarm.handler;
 
-import android.app.AlarmManager;
-import android.app.PendingIntent;
-import android.content.Context;
-import android.content.Intent;
-import android.content.SharedPreferences;
 import android.text.format.DateFormat;
 
-import androidx.security.crypto.EncryptedSharedPreferences;
-
 import java.text.SimpleDateFormat;
 import java.util.Locale;
-import androidx.security.crypto.MasterKey;
 
-import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.FullDayPrayers;
 import net.sourceforge.jitl.Method;
 import net.sourceforge.jitl.Prayer;
+import net.sourceforge.jitl.PrayerEngine;
+import net.sourceforge.jitl.PrayerEngines;
 import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 
 import islam.adhanalarm.CONSTANT;
+import islam.adhanalarm.SettingsStore;
 
 public class ScheduleHandler {
 
+    // Engines behind calculate, the reference Jitl unless swapped
+    private static volatile PrayerEngine.Factory engineFactory = PrayerEngines.REFERENCE;
+
+    public static PrayerEngine.Factory getEngineFactory() {
+        return engineFactory;
+    }
+
+    public static void setEngineFactory(PrayerEngine.Factory factory) {
+        engineFactory = factory;
+    }
+
     public static ScheduleData calculate(Location location, String calculationMethodIndex, String roundingTypeIndex, int offsetMinutes) {
-        Method method = CONSTANT.CALCULATION_METHODS[Integer.parseInt(calculationMethodIndex)].copy();
-        method.setRound(CONSTANT.ROUNDING_TYPES[Integer.parseInt(roundingTypeIndex)]);
+        return calculate(location, Integer.parseInt(calculationMethodIndex), Integer.parseInt(roundingTypeIndex), offsetMinutes);
+    }
+
+    public static ScheduleData calculate(Location location, int calculationMethodIndex, int roundingTypeIndex, int offsetMinutes) {
+        return calculate(engineFactory, location, calculationMethodIndex, roundingTypeIndex, offsetMinutes);
+    }
 
-        GregorianCalendar day = new GregorianCalendar();
-        Jitl itl = new Jitl(location, method);
-        Prayer[] dayPrayers = itl.getPrayerTimes(day).getPrayers();
-        Prayer[] allTimes = new Prayer[]{dayPrayers[0], dayPrayers[1], dayPrayers[2], dayPrayers[3], dayPrayers[4], dayPrayers[5], itl.getNextDayFajr(day)};
+    public static ScheduleData calculate(PrayerEngine.Factory engines, Location location, int calculationMethodIndex, int roundingTypeIndex, int offsetMinutes) {
+        return calculate(engines, location, calculationMethodIndex, roundingTypeIndex, offsetMinutes, new GregorianCalendar());
+    }
+
+    public static ScheduleData calculate(PrayerEngine.Factory engines, Location location, int calculationMethodIndex, int roundingTypeIndex, int offsetMinutes, GregorianCalendar day) {
+        Method method = getMethod(calculationMethodIndex, roundingTypeIndex);
+
+        PrayerEngine engine = engines.create(location, method);
+        FullDayPrayers fullDay = new FullDayPrayers();
+        engine.getFullDayPrayers(new SimpleDate(day), fullDay);
+        Prayer[] dayPrayers = fullDay.getPrayers();
+        Prayer[] allTimes = new Prayer[]{dayPrayers[0], dayPrayers[1], dayPrayers[2], dayPrayers[3], dayPrayers[4], dayPrayers[5], fullDay.nextFajr()};
 
         GregorianCalendar[] schedule = new GregorianCalendar[7];
         boolean[] extremes = new boolean[7];
-        for (short i = CONSTANT.FAJR; i <= CONSTANT.NEXT_FAJR; i++) {
+        for (short i = CONSTANT.FAJR; i < CONSTANT.NEXT_FAJR; i++) {
             schedule[i] = new GregorianCalendar(day.get(Calendar.YEAR), day.get(Calendar.MONTH), day.get(Calendar.DAY_OF_MONTH), allTimes[i].getHour(), allTimes[i].getMinute(), allTimes[i].getSecond());
             schedule[i].add(Calendar.MINUTE, offsetMinutes);
             extremes[i] = allTimes[i].isExtreme();
         }
-        schedule[CONSTANT.NEXT_FAJR].add(Calendar.DAY_OF_MONTH, 1); // Next fajr is tomorrow
+
+        // Next fajr is tomorrow but given in the offset of today, which is not the offset
+        // of tomorrow's clock on the night before a daylight saving change
+        LocalDate today = LocalDate.of(day.get(Calendar.YEAR), day.get(Calendar.MONTH) + 1, day.get(Calendar.DAY_OF_MONTH));
+        ZoneOffset offset = ZoneId.systemDefault().getRules().getOffset(today.atTime(LocalTime.NOON));
+        Prayer nextFajr = allTimes[CONSTANT.NEXT_FAJR];
+        long nextFajrSecond = today.plusDays(1).atStartOfDay().toEpochSecond(offset)
+                + nextFajr.getHour() * 3600L + nextFajr.getMinute() * 60 + nextFajr.getSecond();
+        schedule[CONSTANT.NEXT_FAJR] = new GregorianCalendar();
+        schedule[CONSTANT.NEXT_FAJR].setTimeInMillis((nextFajrSecond + offsetMinutes * 60L) * 1000);
+        extremes[CONSTANT.NEXT_FAJR] = nextFajr.isExtreme();
 
         return new ScheduleData(schedule, extremes, getNextTimeIndex(schedule));
     }
 
+    public static Method getMethod(int calculationMethodIndex, int roundingTypeIndex) {
+        Method method = CONSTANT.CALCULATION_METHODS[calculationMethodIndex].copy();
+        method.setRound(CONSTANT.ROUNDING_TYPES[roundingTypeIndex]);
+        return method;
+    }
+
     public static String getFormattedTime(GregorianCalendar[] schedule, boolean[] extremes, short i, String timeFormatIndex) {
         boolean isAMPM = Integer.parseInt(timeFormatIndex) == CONSTANT.DEFAULT_TIME_FORMAT;
         if (schedule[i] == null) {
@@ -80,81 +120,38 @@ public class ScheduleHandler {
     }
 
     public static Location getLocation(String latitude, String longitude, String altitude, String pressure, String temperature) {
-        Location location = new Location(
-                Float.parseFloat(latitude),
-                Float.parseFloat(longitude),
-                getGMTOffset(),
-                0
-        );
-        location.setSeaLevel(Float.parseFloat(altitude) < 0 ? 0 : Float.parseFloat(altitude));
-        location.setPressure(Float.parseFloat(pressure));
-        location.setTemperature(Float.parseFloat(temperature));
-        return location;
+        return getLocation(Float.parseFloat(latitude), Float.parseFloat(longitude), Float.parseFloat(altitude), Float.parseFloat(pressure), Float.parseFloat(temperature));
     }
 
-    private static double getGMTOffset() {
-        Calendar now = new GregorianCalendar();
-        int gmtOffset = now.getTimeZone().getOffset(now.getTimeInMillis());
-        return gmtOffset / 3600000.0;
-    }
-
-    public static void scheduleAlarms(Context context, ScheduleData scheduleData) {
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        SharedPreferences settings;
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context, MasterKey.DEFAULT_MASTER_KEY_ALIAS)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-
-            settings = EncryptedSharedPreferences.create(
-                    context,
-                    "secret_shared_prefs",
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-        } catch (Exception e) {
-            e.printStackTrace();
-            return;
-        }
-
-
-        String[] prayerNames = context.getResources().getStringArray(islam.adhanalarm.R.array.prayer_names);
-
-        for (int i = 0; i < scheduleData.schedule.length; i++) {
-            if (i == CONSTANT.SUNRISE) continue; // Don't notify for sunrise
+    public static Location getLocation(SettingsStore.Snapshot settings) {
+        return getLocation(settings, LocalDate.now());
+    }
 
-            GregorianCalendar prayerTime = scheduleData.schedule[i];
+    // Location for the times of another day, in the offset of that day
+    public static Location getLocation(SettingsStore.Snapshot settings, LocalDate day) {
+        return getLocation(settings.latitude, settings.longitude, settings.altitude, settings.pressure, settings.temperature, day);
+    }
 
-            if (prayerTime.getTimeInMillis() < System.currentTimeMillis()) {
-                continue;
-            }
+    public static Location getLocation(double latitude, double longitude, double altitude, double pressure, double temperature) {
+        return getLocation(latitude, longitude, altitude, pressure, temperature, LocalDate.now());
+    }
 
-            // Schedule prayer time notification
-            Intent intent = new Intent(context, islam.adhanalarm.PrayerTimeReceiver.class);
-            intent.putExtra("prayer_name", prayerNames[i]);
-            intent.putExtra("notification_id", i);
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(context, i, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, prayerTime.getTimeInMillis(), pendingIntent);
-
-            // Schedule before prayer notification
-            int beforePrayerNotificationTime = 0;
-            try {
-                beforePrayerNotificationTime = Integer.parseInt(settings.getString("beforePrayerNotification", "0"));
-            } catch (NumberFormatException e) {
-                // Ignore and use 0
-            }
+    private static Location getLocation(double latitude, double longitude, double altitude, double pressure, double temperature, LocalDate day) {
+        Location location = new Location(
+                latitude,
+                longitude,
+                getGMTOffset(day),
+                0
+        );
+        location.setSeaLevel(altitude < 0 ? 0 : altitude);
+        location.setPressure(pressure);
+        location.setTemperature(temperature);
+        return location;
+    }
 
-            if (beforePrayerNotificationTime > 0) {
-                GregorianCalendar beforePrayerTime = (GregorianCalendar) prayerTime.clone();
-                beforePrayerTime.add(Calendar.MINUTE, -beforePrayerNotificationTime);
-                Intent beforeIntent = new Intent(context, islam.adhanalarm.PrayerTimeReceiver.class);
-                beforeIntent.putExtra("prayer_name", prayerNames[i] + " (in " + beforePrayerNotificationTime + " minutes)");
-                beforeIntent.putExtra("notification_id", i + CONSTANT.NOTIFICATION_ID_OFFSET);
-                beforeIntent.putExtra("prayer_time_millis", prayerTime.getTimeInMillis());
-                PendingIntent beforePendingIntent = PendingIntent.getBroadcast(context, i + CONSTANT.REQUEST_CODE_OFFSET, beforeIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-                alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, beforePrayerTime.getTimeInMillis(), beforePendingIntent);
-            }
-        }
+    // Offset of a day, taken at noon like the days of a zone aware range
+    private static double getGMTOffset(LocalDate day) {
+        LocalDateTime noon = day.atTime(LocalTime.NOON);
+        return ZoneId.systemDefault().getRules().getOffset(noon).getTotalSeconds() / 3600.0;
     }
 }
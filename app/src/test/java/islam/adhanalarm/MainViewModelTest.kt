@@ -3,8 +3,6 @@ package islam.adhanalarm
 import android.app.Application
 import android.content.SharedPreferences
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule
-import androidx.security.crypto.EncryptedSharedPreferences
-import androidx.security.crypto.MasterKey
 import androidx.test.core.app.ApplicationProvider
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import org.junit.Assert.assertEquals
@@ -27,16 +25,7 @@ class MainViewModelTest {
     fun setup() {
         application = ApplicationProvider.getApplicationContext()
         // Clear preferences before each test to ensure a clean state
-        val masterKey = MasterKey.Builder(application, MasterKey.DEFAULT_MASTER_KEY_ALIAS)
-            .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-            .build()
-        prefs = EncryptedSharedPreferences.create(
-            application,
-            "secret_shared_prefs",
-            masterKey,
-            EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-            EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-        )
+        prefs = SettingsStore.getInstance(application).preferences
         prefs.edit().clear().commit()
     }
 
@@ -69,4 +58,22 @@ class MainViewModelTest {
         assertEquals(34.0522, location!!.latitude, 0.001)
         assertEquals(-118.2437, location.longitude, 0.001)
     }
+
+    @Test
+    fun `test settings snapshot follows writes`() {
+        val store = SettingsStore.getInstance(application)
+
+        prefs.edit()
+            .putString("latitude", "21.42")
+            .putString("longitude", "39.83")
+            .putString("beforePrayerNotification", "15")
+            .commit()
+
+        val snapshot = store.snapshot
+        assertEquals(true, snapshot.hasLocation)
+        assertEquals(21.42, snapshot.latitude, 0.001)
+        assertEquals(39.83, snapshot.longitude, 0.001)
+        assertEquals(15, snapshot.beforePrayerNotificationMinutes)
+        assertEquals(false, snapshot.hasCalculationMethod())
+    }
 }
@@ -0,0 +1,68 @@
+package islam.adhanalarm.handler;
+
+import android.app.AlarmManager;
+import android.app.Application;
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import islam.adhanalarm.CONSTANT;
+import islam.adhanalarm.SettingsStore;
+
+@RunWith(AndroidJUnit4.class)
+public class AlarmChainTest {
+
+    private Application application;
+    private SettingsStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        application = ApplicationProvider.getApplicationContext();
+        store = SettingsStore.getInstance(application);
+        store.getPreferences().edit()
+                .clear()
+                .putString("latitude", "34.0522")
+                .putString("longitude", "-118.2437")
+                .putString("beforePrayerNotification", "10")
+                .putString("alarmMode", String.valueOf(CONSTANT.ALARM_MODE_CHAIN))
+                .commit();
+        AlarmChain.clear(application);
+    }
+
+    @Test
+    public void testKeepsOneAlarmPending() {
+        SettingsStore.Snapshot settings = store.getSnapshot();
+        assertEquals(CONSTANT.ALARM_MODE_CHAIN, settings.alarmMode);
+        AlarmManager alarmManager = (AlarmManager) application.getSystemService(Context.ALARM_SERVICE);
+
+        assertEquals(1, AlarmChain.update(application, settings, 1));
+        assertEquals(1, shadowOf(alarmManager).getScheduledAlarms().size());
+
+        // The pending alarm is left alone until it goes off
+        assertEquals(0, AlarmChain.update(application, settings, 1));
+        assertTrue(AlarmChain.armNext(application, settings));
+        assertEquals(1, shadowOf(alarmManager).getScheduledAlarms().size());
+
+        assertEquals(1, AlarmChain.clear(application));
+        assertEquals(0, shadowOf(alarmManager).getScheduledAlarms().size());
+    }
+
+    @Test
+    public void testCallsAreCounted() {
+        int before = AlarmStats.getDailyCalls(application, CONSTANT.ALARM_MODE_CHAIN, 1)[0];
+        AlarmChain.update(application, store.getSnapshot(), 1);
+        assertEquals(before + 1, AlarmStats.getDailyCalls(application, CONSTANT.ALARM_MODE_CHAIN, 1)[0]);
+
+        int wakeups = AlarmStats.getDailyWakeups(application, CONSTANT.ALARM_MODE_CHAIN, 1)[0];
+        AlarmStats.recordWakeup(application, CONSTANT.ALARM_MODE_CHAIN);
+        assertEquals(wakeups + 1, AlarmStats.getDailyWakeups(application, CONSTANT.ALARM_MODE_CHAIN, 1)[0]);
+    }
+}
@@ -0,0 +1,119 @@
+package islam.adhanalarm.handler;
+
+import android.app.AlarmManager;
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import net.sourceforge.jitl.astro.Location;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.shadows.ShadowAlarmManager;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import islam.adhanalarm.SettingsStore;
+
+@RunWith(AndroidJUnit4.class)
+public class AlarmPlanTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Los_Angeles");
+    private static final LocalDate FIRST = LocalDate.of(2024, 3, 7); // Daylight saving time starts on the 10th
+
+    private Application application;
+    private SettingsStore store;
+    private Location location;
+
+    @Before
+    public void setUp() throws Exception {
+        application = ApplicationProvider.getApplicationContext();
+        store = SettingsStore.getInstance(application);
+        store.getPreferences().edit()
+                .clear()
+                .putString("latitude", "34.0522")
+                .putString("longitude", "-118.2437")
+                .commit();
+        location = ScheduleHandler.getLocation(34.0522, -118.2437, 0, 1010, 10);
+    }
+
+    @Test
+    public void testPlanCoversEveryDayWithDistinctCodes() {
+        long start = FIRST.atStartOfDay(ZONE).toInstant().toEpochMilli();
+        List<AlarmPlan.Alarm> alarms = AlarmPlan.plan(location, ScheduleHandler.getMethod(1, 2), FIRST, ZONE, 0, 10, start);
+
+        assertEquals(AlarmPlan.DAYS * 5 * 2, alarms.size());
+        Set<Integer> codes = new HashSet<>();
+        long previous = start;
+        for (AlarmPlan.Alarm alarm : alarms) {
+            assertTrue(codes.add(alarm.requestCode));
+            assertTrue(alarm.triggerMillis > previous);
+            previous = alarm.triggerMillis;
+        }
+    }
+
+    @Test
+    public void testOnlyChangedAlarmsAreTouched() {
+        long start = FIRST.atStartOfDay(ZONE).toInstant().toEpochMilli();
+        List<AlarmPlan.Alarm> alarms = AlarmPlan.plan(location, ScheduleHandler.getMethod(1, 2), FIRST, ZONE, 0, 0, start);
+        Map<Integer, Long> registered = new HashMap<>();
+        for (AlarmPlan.Alarm alarm : alarms) {
+            registered.put(alarm.requestCode, alarm.triggerMillis);
+        }
+        assertTrue(AlarmPlan.getChanged(registered, alarms).isEmpty());
+        assertTrue(AlarmPlan.getRemoved(registered, alarms, start).isEmpty());
+
+        // A day later the first day is gone and the eighth day is new
+        long later = FIRST.plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+        List<AlarmPlan.Alarm> rolled = AlarmPlan.plan(location, ScheduleHandler.getMethod(1, 2), FIRST.plusDays(1), ZONE, 0, 0, later);
+        assertEquals(5, AlarmPlan.getChanged(registered, rolled).size());
+        assertTrue(AlarmPlan.getRemoved(registered, rolled, later).isEmpty());
+
+        // A new offset moves every alarm
+        List<AlarmPlan.Alarm> moved = AlarmPlan.plan(location, ScheduleHandler.getMethod(1, 2), FIRST, ZONE, 2, 0, start);
+        assertEquals(alarms.size(), AlarmPlan.getChanged(registered, moved).size());
+    }
+
+    @Test
+    public void testDroppedBeforeAlarmsAreCancelled() {
+        AlarmManager alarmManager = (AlarmManager) application.getSystemService(Context.ALARM_SERVICE);
+        store.getPreferences().edit().putString("beforePrayerNotification", "10").commit();
+        AlarmPlan.update(application, store.getSnapshot(), 1);
+        assertTrue(countBeforeAlarms(alarmManager) > 0);
+
+        // The labels change with the delay, so every alarm is set again
+        store.getPreferences().edit().putString("beforePrayerNotification", "0").commit();
+        AlarmPlan.update(application, store.getSnapshot(), 1);
+        assertEquals(0, countBeforeAlarms(alarmManager));
+        assertFalse(shadowOf(alarmManager).getScheduledAlarms().isEmpty());
+    }
+
+    private static int countBeforeAlarms(AlarmManager alarmManager) {
+        int count = 0;
+        for (ShadowAlarmManager.ScheduledAlarm alarm : shadowOf(alarmManager).getScheduledAlarms()) {
+            Intent intent = shadowOf(alarm.operation).getSavedIntent();
+            if (intent.hasExtra("prayer_time_millis")) count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testSecondUpdateMakesNoCalls() {
+        SettingsStore.Snapshot settings = store.getSnapshot();
+        assertTrue(AlarmPlan.update(application, settings, 1) > 0);
+        assertEquals(0, AlarmPlan.update(application, settings, 1));
+    }
+}
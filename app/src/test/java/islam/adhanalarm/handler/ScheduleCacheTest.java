@@ -0,0 +1,126 @@
+package islam.adhanalarm.handler;
+
+import android.app.Application;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.PrayerEngines;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import islam.adhanalarm.CONSTANT;
+import islam.adhanalarm.SettingsStore;
+
+@RunWith(AndroidJUnit4.class)
+public class ScheduleCacheTest {
+
+    private SettingsStore store;
+    private ScheduleCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        Application application = ApplicationProvider.getApplicationContext();
+        store = SettingsStore.getInstance(application);
+        store.getPreferences().edit()
+                .clear()
+                .putString("latitude", "34.0522")
+                .putString("longitude", "-118.2437")
+                .commit();
+        cache = ScheduleCache.getInstance(application);
+        cache.clear();
+    }
+
+    @Test
+    public void testSecondCallIsReadFromCache() {
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+
+        ScheduleData computed = cache.getSchedule(store.getSnapshot(), 1);
+        ScheduleData cached = cache.getSchedule(store.getSnapshot(), 1);
+
+        assertEquals(misses + 1, cache.getMissCount());
+        assertEquals(hits + 1, cache.getHitCount());
+        for (int i = 0; i < computed.schedule.length; i++) {
+            assertEquals(computed.schedule[i].getTimeInMillis(), cached.schedule[i].getTimeInMillis());
+            assertEquals(computed.extremes[i], cached.extremes[i]);
+        }
+        assertEquals(computed.nextTimeIndex, cached.nextTimeIndex);
+    }
+
+    @Test
+    public void testSettingsChangeRecomputes() {
+        cache.getSchedule(store.getSnapshot(), 1);
+        long misses = cache.getMissCount();
+
+        store.getPreferences().edit().putString("offsetMinutes", "5").commit();
+        cache.getSchedule(store.getSnapshot(), 1);
+        assertEquals(misses + 1, cache.getMissCount());
+
+        cache.getSchedule(store.getSnapshot(), 2);
+        assertEquals(misses + 2, cache.getMissCount());
+    }
+
+    @Test
+    public void testFollowingDaysAreStored() {
+        TimeZone zone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        try {
+            checkFollowingDays();
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+    }
+
+    private void checkFollowingDays() {
+        // Clocks go forward in Berlin on the night of March 30
+        LocalDate today = LocalDate.of(2024, 3, 28);
+        assertEquals(1, ScheduleHandler.getLocation(store.getSnapshot(), today).getGmtDiff(), 0);
+        assertEquals(2, ScheduleHandler.getLocation(store.getSnapshot(), today.plusDays(6)).getGmtDiff(), 0);
+
+        cache.getSchedule(PrayerEngines.REFERENCE, store.getSnapshot(), 1, today);
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+
+        // The week from today was computed by the first call, daylight saving change included
+        for (int i = 1; i < 7; i++) {
+            LocalDate date = today.plusDays(i);
+            ScheduleData cached = cache.getSchedule(PrayerEngines.REFERENCE, store.getSnapshot(), 1, date);
+            ScheduleData computed = ScheduleHandler.calculate(PrayerEngines.REFERENCE,
+                    ScheduleHandler.getLocation(store.getSnapshot(), date), 1, store.getSnapshot().roundingTypeIndex, store.getSnapshot().offsetMinutes,
+                    new GregorianCalendar(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth()));
+            for (int j = 0; j < computed.schedule.length; j++) {
+                assertEquals(date + " " + j, computed.schedule[j].getTimeInMillis(), cached.schedule[j].getTimeInMillis());
+            }
+        }
+        assertEquals(misses, cache.getMissCount());
+        assertEquals(hits + 6, cache.getHitCount());
+
+        cache.getSchedule(PrayerEngines.REFERENCE, store.getSnapshot(), 1, today.plusDays(7));
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void testFingerprintCoversMethodParameters() {
+        SettingsStore.Snapshot settings = store.getSnapshot();
+        Method method = CONSTANT.CALCULATION_METHODS[1];
+        double fajrAngle = method.getFajrAng();
+        long fingerprint = ScheduleCache.fingerprint(PrayerEngines.REFERENCE, settings, 1);
+        try {
+            method.setFajrAng(fajrAngle + 0.5);
+            assertNotEquals(fingerprint, ScheduleCache.fingerprint(PrayerEngines.REFERENCE, settings, 1));
+        } finally {
+            method.setFajrAng(fajrAngle);
+        }
+        assertEquals(fingerprint, ScheduleCache.fingerprint(PrayerEngines.REFERENCE, settings, 1));
+    }
+}
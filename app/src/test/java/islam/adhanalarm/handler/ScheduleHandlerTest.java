@@ -5,7 +5,9 @@ import android.app.Application;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import net.sourceforge.jitl.PrayerEngines;
 import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -81,6 +83,43 @@ public class ScheduleHandlerTest {
         assertTrue(scheduleData.nextTimeIndex >= 0 && scheduleData.nextTimeIndex < scheduleData.schedule.length);
     }
 
+    @Test
+    public void testCalculateWithTableEngine() {
+        Location location = new Location(34.0522, -118.2437, -8, 0);
+
+        ScheduleData reference = ScheduleHandler.calculate(PrayerEngines.REFERENCE, location, 0, 0, 0);
+        ScheduleData table = ScheduleHandler.calculate(
+                PrayerEngines.table(PrayerEngines.REFERENCE, new SimpleDate(new GregorianCalendar()), 1),
+                location, 0, 0, 0);
+
+        for (int i = 0; i < reference.schedule.length; i++) {
+            assertEquals(reference.schedule[i].getTimeInMillis(), table.schedule[i].getTimeInMillis());
+        }
+    }
+
+    @Test
+    public void testNextFajrBeforeDaylightSavingChange() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+
+        // Clocks go forward on the night of March 30 2024 and back on the night of October 26
+        checkNextFajr(new GregorianCalendar(2024, Calendar.MARCH, 30), 1, 2);
+        checkNextFajr(new GregorianCalendar(2024, Calendar.OCTOBER, 26), 2, 1);
+        checkNextFajr(new GregorianCalendar(2024, Calendar.JUNE, 15), 2, 2);
+    }
+
+    // Next fajr must be the fajr of the schedule of the next day, within the few seconds
+    // that computing the day at another offset moves it
+    private static void checkNextFajr(GregorianCalendar today, double gmtToday, double gmtTomorrow) {
+        GregorianCalendar tomorrow = (GregorianCalendar) today.clone();
+        tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+
+        ScheduleData first = ScheduleHandler.calculate(PrayerEngines.REFERENCE, new Location(52.52, 13.40, gmtToday, 0), 0, 0, 5, today);
+        ScheduleData second = ScheduleHandler.calculate(PrayerEngines.REFERENCE, new Location(52.52, 13.40, gmtTomorrow, 0), 0, 0, 5, tomorrow);
+
+        assertEquals(second.schedule[CONSTANT.FAJR].getTimeInMillis(), first.schedule[CONSTANT.NEXT_FAJR].getTimeInMillis(), 60000);
+        assertEquals(second.extremes[CONSTANT.FAJR], first.extremes[CONSTANT.NEXT_FAJR]);
+    }
+
     @Test
     public void testGetFormattedTime() {
         // --- AM/PM format (12-hour) ---
@@ -0,0 +1,99 @@
+package net.sourceforge.jitl;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.jitl.astro.Astro;
+import net.sourceforge.jitl.astro.AstroDay;
+import net.sourceforge.jitl.astro.AstroLib;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.RecurrenceEphemeris;
+import net.sourceforge.jitl.astro.TruncatedEphemeris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of the astronomical steps behind a prayer time calculation:
+ * the VSOP87 series of one day, directly, by recurrence over consecutive
+ * days and truncated to its larger terms, the topocentric correction of the three day window and the
+ * shurooq/maghrib hour angle.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AstroBenchmark {
+
+	@Param({ "EQUATORIAL", "MID", "POLAR" })
+	public String latitude;
+
+	private Location loc;
+
+	private Astro astro;
+
+	private Astro topAstro;
+
+	private AstroDay astroDay;
+
+	private RecurrenceEphemeris recurrence;
+
+	private double julianDay;
+
+	private int day;
+
+	@Setup
+	public void setUp() {
+		loc = Fixtures.location(latitude);
+		astro = new Astro();
+		topAstro = new Astro();
+		astroDay = new AstroDay();
+		recurrence = new RecurrenceEphemeris();
+		julianDay = Jitl.getDayInfo(Fixtures.DATES[0], loc.getGmtDiff())
+				.getJulianDay();
+		AstroLib.getAstroValuesByDay(julianDay, loc, astro, topAstro);
+	}
+
+	@Benchmark
+	public AstroDay computeAstroDay() {
+		/* Walk the days of a year so the result cannot be constant folded */
+		day = (day + 1) % 366;
+		AstroLib.computeAstroDay(julianDay + day, astroDay);
+		return astroDay;
+	}
+
+	@Benchmark
+	public AstroDay recurrenceAstroDay() {
+		/* Same walk: one exact evaluation every 64 days and at the wrap */
+		day = (day + 1) % 366;
+		recurrence.computeAstroDay(julianDay + day, astroDay);
+		return astroDay;
+	}
+
+	@Benchmark
+	public AstroDay truncatedAstroDay() {
+		day = (day + 1) % 366;
+		TruncatedEphemeris.STANDARD.computeAstroDay(julianDay + day, astroDay);
+		return astroDay;
+	}
+
+	@Benchmark
+	public AstroDay roughAstroDay() {
+		day = (day + 1) % 366;
+		TruncatedEphemeris.ROUGH.computeAstroDay(julianDay + day, astroDay);
+		return astroDay;
+	}
+
+	@Benchmark
+	public Astro computeTopAstro() {
+		AstroLib.computeTopAstro(loc, astro, topAstro);
+		return topAstro;
+	}
+
+	@Benchmark
+	public double getShoMag() {
+		return Jitl.getShoMag(loc, topAstro, PrayerTime.SHUROOQ);
+	}
+
+}
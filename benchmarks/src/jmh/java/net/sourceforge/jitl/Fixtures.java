@@ -0,0 +1,63 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Parameters shared by the benchmarks
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Days of 2024 in a scattered order, so the three day window of Jitl is
+	 * recomputed at each call instead of being shifted
+	 */
+	static final SimpleDate[] DATES = new SimpleDate[366];
+
+	static {
+		int first = EpochDay.of(2024, 1, 1);
+
+		for (int i = 0; i < DATES.length; i++)
+			DATES[i] = SimpleDate.fromEpochDay(first + (i * 7) % 366);
+	}
+
+	/**
+	 * @param latitude EQUATORIAL, MID or POLAR
+	 * @return a new location in that band
+	 */
+	static Location location(String latitude) {
+		switch (latitude) {
+		case "EQUATORIAL":
+			return new Location(1.35, 103.82, 8, 0); /* Singapore */
+		case "MID":
+			return new Location(48.86, 2.35, 1, 0); /* Paris */
+		case "POLAR":
+			return new Location(69.65, 18.96, 1, 0); /* Tromso */
+		default:
+			throw new IllegalArgumentException("Unknown latitude: " + latitude);
+		}
+	}
+
+	/**
+	 * @param name name of a Method preset, e.g. ISNA
+	 * @param extreme name of an ExtremeLatitude constant, e.g. GOOD_INVALID
+	 * @return a copy of the preset using the extreme latitude method
+	 */
+	static Method method(String name, String extreme) {
+		try {
+			Method method = ((Method) Method.class.getField(name).get(null))
+					.copy();
+			method.setExtremeLatitude((ExtremeLatitude) ExtremeLatitude.class
+					.getField(extreme).get(null));
+			return method;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Unknown method: " + name
+					+ " / " + extreme, e);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package net.sourceforge.jitl;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.jitl.astro.ChebyshevEphemeris;
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.EphemerisCache;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of a full day of prayer times and of the imsaak time, for every
+ * method preset, every extreme latitude method and three latitude bands.
+ * Each call uses another day of the year. With the VSOP87 ephemeris every
+ * call runs the series for three days, with the shared cache only the per
+ * location steps are measured once the year has been computed, and the
+ * Chebyshev ephemeris shows the cost of the fitted polynomials.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JitlBenchmark {
+
+	@Param({ "NONE", "EGYPT_SURVEY", "KARACHI_SHAF", "KARACHI_HANAF", "ISNA",
+			"MUSLIM_LEAGUE", "UMM_ALQURRA", "FIXED_ISHAA" })
+	public String method;
+
+	@Param({ "NONE_EX", "LAT_ALL", "LAT_ALWAYS", "LAT_INVALID", "GOOD_ALL",
+			"GOOD_INVALID", "SEVEN_NIGHT_ALWAYS", "SEVEN_NIGHT_INVALID",
+			"SEVEN_DAY_ALWAYS", "SEVEN_DAY_INVALID", "HALF_ALWAYS",
+			"HALF_INVALID", "MIN_ALWAYS", "MIN_INVALID", "GOOD_DIF" })
+	public String extreme;
+
+	@Param({ "EQUATORIAL", "MID", "POLAR" })
+	public String latitude;
+
+	@Param({ "VSOP87", "SHARED_CACHE", "CHEBYSHEV" })
+	public String ephemeris;
+
+	private Jitl itl;
+
+	private DayPrayers prayers;
+
+	private int day;
+
+	@Setup
+	public void setUp() {
+		itl = new Jitl(Fixtures.location(latitude), Fixtures.method(method,
+				extreme));
+		if ("VSOP87".equals(ephemeris))
+			itl.setEphemeris(Ephemeris.VSOP87);
+		else if ("CHEBYSHEV".equals(ephemeris))
+			itl.setEphemeris(ChebyshevEphemeris.shared());
+		else
+			itl.setEphemeris(EphemerisCache.shared());
+		prayers = new DayPrayers();
+	}
+
+	private SimpleDate nextDate() {
+		SimpleDate date = Fixtures.DATES[day];
+		day = (day + 1) % Fixtures.DATES.length;
+		return date;
+	}
+
+	@Benchmark
+	public DayPrayers getPrayerTimes() {
+		itl.getPrayerTimes(nextDate(), prayers);
+		return prayers;
+	}
+
+	@Benchmark
+	public Prayer getImsaak() {
+		return itl.getImsaak(nextDate());
+	}
+
+}
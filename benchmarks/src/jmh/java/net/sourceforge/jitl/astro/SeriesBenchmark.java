@@ -0,0 +1,131 @@
+package net.sourceforge.jitl.astro;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of the VSOP87 and nutation series evaluated from the flat
+ * coefficient tables of AstroLib, against the former loops over the tables
+ * of small inner arrays. Both give the same values bit for bit. This class
+ * is in the astro package to reach the package private tables.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SeriesBenchmark {
+
+	private AstroDay astroDay;
+
+	private double julianDay;
+
+	private int day;
+
+	@Setup
+	public void setUp() {
+		astroDay = new AstroDay();
+		julianDay = 2460310.5;
+	}
+
+	@Benchmark
+	public AstroDay flat() {
+		day = (day + 1) % 366;
+		AstroLib.computeAstroDay(julianDay + day, astroDay);
+		return astroDay;
+	}
+
+	@Benchmark
+	public AstroDay nested() {
+		day = (day + 1) % 366;
+		nestedAstroDay(julianDay + day, astroDay);
+		return astroDay;
+	}
+
+	/* The series loops as they were before the tables were flattened */
+	static void nestedAstroDay(double JD, AstroDay astroday) {
+		int i;
+		double R, tL, tB;
+		double X0, X1, X2, X3, X4;
+		double B0sum = 0, B1sum = 0;
+		double R0sum = 0, R1sum = 0, R2sum = 0, R3sum = 0, R4sum = 0;
+		double L0sum = 0, L1sum = 0, L2sum = 0, L3sum = 0, L4sum = 0, L5sum = 0;
+		double xsum = 0, psi = 0, epsilon = 0;
+
+		double JC = (JD - 2451545) / 36525.0;
+		double JM = JC / 10.0;
+		double JM2 = Math.pow(JM, 2);
+		double JM3 = Math.pow(JM, 3);
+		double JM4 = Math.pow(JM, 4);
+		double JM5 = Math.pow(JM, 5);
+
+		double[][] L0 = AstroLib.L0, L1 = AstroLib.L1, L2 = AstroLib.L2;
+		double[][] L3 = AstroLib.L3, L4 = AstroLib.L4, L5 = AstroLib.L5;
+		double[][] B0 = AstroLib.B0, B1 = AstroLib.B1;
+		double[][] R0 = AstroLib.R0, R1 = AstroLib.R1, R2 = AstroLib.R2;
+		double[][] R3 = AstroLib.R3, PE = AstroLib.PE;
+		double[] R4 = AstroLib.R4;
+		int[][] SINCOEFF = AstroLib.SINCOEFF;
+
+		for (i = 0; i < 64; i++)
+			L0sum += L0[i][0] * Math.cos(L0[i][1] + L0[i][2] * JM);
+		for (i = 0; i < 34; i++)
+			L1sum += L1[i][0] * Math.cos(L1[i][1] + L1[i][2] * JM);
+		for (i = 0; i < 20; i++)
+			L2sum += L2[i][0] * Math.cos(L2[i][1] + L2[i][2] * JM);
+		for (i = 0; i < 7; i++)
+			L3sum += L3[i][0] * Math.cos(L3[i][1] + L3[i][2] * JM);
+		for (i = 0; i < 3; i++)
+			L4sum += L4[i][0] * Math.cos(L4[i][1] + L4[i][2] * JM);
+		L5sum = L5[0][0] * Math.cos(L5[0][1] + L5[0][2] * JM);
+
+		tL = (L0sum + (L1sum * JM) + (L2sum * JM2) + (L3sum * JM3)
+				+ (L4sum * JM4) + (L5sum * JM5))
+				/ Math.pow(10, 8);
+
+		for (i = 0; i < 5; i++)
+			B0sum += B0[i][0] * Math.cos(B0[i][1] + B0[i][2] * JM);
+		for (i = 0; i < 2; i++)
+			B1sum += B1[i][0] * Math.cos(B1[i][1] + B1[i][2] * JM);
+
+		tB = (B0sum + (B1sum * JM)) / Math.pow(10, 8);
+
+		for (i = 0; i < 40; i++)
+			R0sum += R0[i][0] * Math.cos(R0[i][1] + R0[i][2] * JM);
+		for (i = 0; i < 10; i++)
+			R1sum += R1[i][0] * Math.cos(R1[i][1] + R1[i][2] * JM);
+		for (i = 0; i < 6; i++)
+			R2sum += R2[i][0] * Math.cos(R2[i][1] + R2[i][2] * JM);
+		for (i = 0; i < 2; i++)
+			R3sum += R3[i][0] * Math.cos(R3[i][1] + R3[i][2] * JM);
+
+		R4sum = R4[0] * Math.cos(R4[1] + R4[2] * JM);
+
+		R = (R0sum + (R1sum * JM) + (R2sum * JM2) + (R3sum * JM3) + (R4sum * JM4))
+				/ Math.pow(10, 8);
+
+		X0 = AstroLib.nutationArgument(0, JC);
+		X1 = AstroLib.nutationArgument(1, JC);
+		X2 = AstroLib.nutationArgument(2, JC);
+		X3 = AstroLib.nutationArgument(3, JC);
+		X4 = AstroLib.nutationArgument(4, JC);
+
+		for (i = 0; i < 63; i++) {
+			xsum += X0 * SINCOEFF[i][0];
+			xsum += X1 * SINCOEFF[i][1];
+			xsum += X2 * SINCOEFF[i][2];
+			xsum += X3 * SINCOEFF[i][3];
+			xsum += X4 * SINCOEFF[i][4];
+			psi += (PE[i][0] + JC * PE[i][1])
+					* Math.sin(Utils.DEG_TO_RAD(xsum));
+			epsilon += (PE[i][2] + JC * PE[i][3])
+					* Math.cos(Utils.DEG_TO_RAD(xsum));
+			xsum = 0;
+		}
+
+		AstroLib.completeAstroDay(JD, tL, tB, R, psi, epsilon, astroday);
+	}
+
+}
@@ -0,0 +1,393 @@
+package net.sourceforge.jitl.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.jitl.ExtremeLatitude;
+import net.sourceforge.jitl.FullDayPrayers;
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.Prayer;
+import net.sourceforge.jitl.PrayerEngine;
+import net.sourceforge.jitl.PrayerEngines;
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Differential validation of prayer engines. Every engine is run over a grid
+ * of locations and dates, and each of the eight times of a full day
+ * (imsaak, the six prayers and the next day fajr) is compared with the one
+ * of the reference engine.
+ * <p>
+ * The report of an engine gives the largest difference in seconds and where
+ * it happened, the number of times computed by one engine and not by the
+ * other, the number of extreme switches that differ, and the speedup over
+ * the reference. Creating the engines (a TableEngine computes its whole span
+ * then) is timed apart from asking them the days, and the speedup is the
+ * one of the days. Each engine is timed several rounds after a warm up, the
+ * best round being kept.
+ * <p>
+ * The locations are every <code>--lat-step</code> degrees of latitude up
+ * to <code>--max-lat</code> on both sides, at three longitudes, with the
+ * GMT difference of their meridian. The dates are every
+ * <code>--step</code> days of the years <code>--from</code> to
+ * <code>--to</code>.
+ */
+public final class DifferentialRunner {
+
+	private static final String USAGE = "usage: DifferentialRunner [--from YEAR]"
+			+ " [--to YEAR] [--step DAYS] [--max-lat DEG] [--lat-step DEG]"
+			+ " [--method PRESET] [--extreme MODE] [--rounds N] [ENGINE...]"
+			+ "\nengines: fast, table, reference";
+
+	private static final double[] LONGITUDES = { -74.0, 2.35, 103.8 };
+
+	private static final int TIMES = 8;
+
+	private final Location[] locations;
+
+	private final int firstDay;
+
+	private final int days;
+
+	private final int step;
+
+	private final Method method;
+
+	/**
+	 * Creates a runner
+	 * @param locations the locations of the grid
+	 * @param first first date of the grid
+	 * @param days number of days spanned by the grid
+	 * @param step days between two dates of the grid
+	 * @param method the method used in the calculation
+	 */
+	public DifferentialRunner(Location[] locations, SimpleDate first, int days,
+			int step, Method method) {
+		if (days < 1 || step < 1)
+			throw new IllegalArgumentException("Invalid span of " + days
+					+ " days every " + step);
+		this.locations = locations.clone();
+		this.firstDay = EpochDay.of(first);
+		this.days = days;
+		this.step = step;
+		this.method = method.copy();
+	}
+
+	public static void main(String[] args) {
+		int from = 2000, to = 2040, step = 7, rounds = 3;
+		double maxLat = 48, latStep = 6;
+		String preset = "MUSLIM_LEAGUE";
+		String extreme = null;
+		List<PrayerEngine.Factory> engines = new ArrayList<PrayerEngine.Factory>();
+		List<String> names = new ArrayList<String>();
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("--")) {
+				names.add(arg);
+				continue;
+			}
+			if (i + 1 == args.length)
+				usage("Missing value for " + arg);
+			String value = args[++i];
+			switch (arg) {
+			case "--from":
+				from = Integer.parseInt(value);
+				break;
+			case "--to":
+				to = Integer.parseInt(value);
+				break;
+			case "--step":
+				step = Integer.parseInt(value);
+				break;
+			case "--max-lat":
+				maxLat = Double.parseDouble(value);
+				break;
+			case "--lat-step":
+				latStep = Double.parseDouble(value);
+				break;
+			case "--method":
+				preset = value;
+				break;
+			case "--extreme":
+				extreme = value;
+				break;
+			case "--rounds":
+				rounds = Integer.parseInt(value);
+				break;
+			default:
+				usage("Unknown option " + arg);
+			}
+		}
+		if (to < from || step < 1 || latStep <= 0 || rounds < 1)
+			usage("Invalid grid");
+		if (names.isEmpty()) {
+			names.add("fast");
+			names.add("table");
+		}
+
+		SimpleDate first = new SimpleDate(1, 1, from);
+		int days = EpochDay.of(to + 1, 1, 1) - EpochDay.of(first);
+		for (String name : names)
+			engines.add(engine(name, first, days));
+
+		Method method = (Method) constant(Method.class, preset);
+		method = method.copy();
+		if (extreme != null)
+			method.setExtremeLatitude((ExtremeLatitude) constant(
+					ExtremeLatitude.class, extreme));
+
+		DifferentialRunner runner = new DifferentialRunner(grid(maxLat,
+				latStep), first, days, step, method);
+		System.out.println(runner.locations.length + " locations, "
+				+ runner.getDateCount() + " dates from " + from + " to " + to
+				+ ", method " + preset);
+		System.out.println(Report.HEADER);
+		for (PrayerEngine.Factory engine : engines)
+			System.out.println(runner.run(engine, rounds));
+	}
+
+	/**
+	 * @return the number of dates of the grid
+	 */
+	public int getDateCount() {
+		return (days + step - 1) / step;
+	}
+
+	/**
+	 * Compares an engine with <code>PrayerEngines.REFERENCE</code>
+	 * @param engine factory of the engine
+	 * @param rounds number of timed rounds
+	 * @return the report of the engine
+	 */
+	public Report run(PrayerEngine.Factory engine, int rounds) {
+		return run(PrayerEngines.REFERENCE, engine, rounds);
+	}
+
+	/**
+	 * Compares an engine with a reference
+	 * @param reference factory of the reference engine
+	 * @param engine factory of the engine
+	 * @param rounds number of timed rounds, 0 to skip the timing
+	 * @return the report of the engine
+	 */
+	public Report run(PrayerEngine.Factory reference,
+			PrayerEngine.Factory engine, int rounds) {
+		Report report = new Report(engine.getName());
+		FullDayPrayers expected = new FullDayPrayers();
+		FullDayPrayers actual = new FullDayPrayers();
+		SimpleDate date = new SimpleDate(1, 1, 1970);
+
+		for (Location loc : locations) {
+			PrayerEngine ref = reference.create(loc, method);
+			PrayerEngine e = engine.create(loc, method);
+
+			for (int d = 0; d < days; d += step) {
+				EpochDay.toDate(firstDay + d, date);
+				ref.getFullDayPrayers(date, expected);
+				e.getFullDayPrayers(date, actual);
+				report.compare(loc, date, times(expected), times(actual));
+			}
+		}
+
+		if (rounds > 0) {
+			/* The first pass warms up */
+			long[] refTimes = time(reference);
+			long[] times = time(engine);
+			for (int i = 0; i < rounds; i++) {
+				refTimes = best(refTimes, time(reference));
+				times = best(times, time(engine));
+			}
+			report.referenceNanos = refTimes[1];
+			report.setupNanos = times[0];
+			report.queryNanos = times[1];
+		}
+		return report;
+	}
+
+	/* Nanoseconds creating the engines and asking them the days */
+	private long[] time(PrayerEngine.Factory factory) {
+		FullDayPrayers pt = new FullDayPrayers();
+		SimpleDate date = new SimpleDate(1, 1, 1970);
+		PrayerEngine[] engines = new PrayerEngine[locations.length];
+		long start = System.nanoTime(), setup, end;
+
+		for (int i = 0; i < locations.length; i++)
+			engines[i] = factory.create(locations[i], method);
+		setup = System.nanoTime();
+		for (int i = 0; i < locations.length; i++) {
+			for (int d = 0; d < days; d += step) {
+				EpochDay.toDate(firstDay + d, date);
+				engines[i].getFullDayPrayers(date, pt);
+			}
+		}
+		end = System.nanoTime();
+		return new long[] { setup - start, end - setup };
+	}
+
+	private static long[] best(long[] a, long[] b) {
+		return new long[] { Math.min(a[0], b[0]), Math.min(a[1], b[1]) };
+	}
+
+	private static Prayer[] times(FullDayPrayers pt) {
+		Prayer[] p = pt.getPrayers();
+		return new Prayer[] { pt.imsaak(), p[0], p[1], p[2], p[3], p[4], p[5],
+				pt.nextFajr() };
+	}
+
+	private static Location[] grid(double maxLat, double latStep) {
+		List<Location> grid = new ArrayList<Location>();
+
+		for (double lat = -maxLat; lat <= maxLat + 1e-9; lat += latStep)
+			for (double lon : LONGITUDES)
+				grid.add(new Location(lat, lon, Math.round(lon / 15), 0));
+		return grid.toArray(new Location[0]);
+	}
+
+	private static PrayerEngine.Factory engine(String name, SimpleDate first,
+			int days) {
+		switch (name) {
+		case "reference":
+			return PrayerEngines.REFERENCE;
+		case "fast":
+			return PrayerEngines.FAST;
+		case "table":
+			return PrayerEngines.table(PrayerEngines.REFERENCE, first, days);
+		default:
+			usage("Unknown engine " + name);
+			return null;
+		}
+	}
+
+	/* Method and ExtremeLatitude are enumerations of public constants */
+	private static Object constant(Class<?> type, String name) {
+		try {
+			return type.getField(name).get(null);
+		} catch (ReflectiveOperationException e) {
+			usage("Unknown " + type.getSimpleName() + " " + name);
+			return null;
+		}
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println(USAGE);
+		System.exit(2);
+	}
+
+	/**
+	 * Differences of one engine with the reference
+	 */
+	public static final class Report {
+
+		static final String HEADER = String.format("%-10s %8s %6s %6s %10s %10s %8s  %s",
+				"engine", "max (s)", "valid", "xtrm", "setup ms", "days ms",
+				"speedup", "largest difference");
+
+		private static final String[] NAMES = { "imsaak", "fajr", "shuruq",
+				"thuhr", "assr", "maghrib", "ishaa", "next fajr" };
+
+		private final String engine;
+
+		private int maxDeviation;
+
+		private String worst = "-";
+
+		private long comparisons;
+
+		private long validMismatches;
+
+		private long extremeMismatches;
+
+		private long referenceNanos, setupNanos, queryNanos;
+
+		Report(String engine) {
+			this.engine = engine;
+		}
+
+		void compare(Location loc, SimpleDate date, Prayer[] expected,
+				Prayer[] actual) {
+			for (int i = 0; i < TIMES; i++) {
+				boolean valid = expected[i].getHour() != 99;
+
+				comparisons++;
+				if (valid != (actual[i].getHour() != 99)) {
+					validMismatches++;
+					continue;
+				}
+				if (expected[i].isExtreme() != actual[i].isExtreme())
+					extremeMismatches++;
+				if (!valid)
+					continue;
+
+				/* The times are seconds of the day, a time moving over
+				 * midnight is a small difference */
+				int d = Math.floorMod(seconds(actual[i]) - seconds(expected[i]),
+						86400);
+				d = Math.min(d, 86400 - d);
+				if (d > maxDeviation) {
+					maxDeviation = d;
+					worst = String.format("%s %04d-%02d-%02d at %.1f %.1f: %s against %s",
+							NAMES[i], date.getYear(), date.getMonth(),
+							date.getDay(), loc.getDegreeLat(), loc.getDegreeLong(),
+							actual[i], expected[i]);
+				}
+			}
+		}
+
+		private static int seconds(Prayer p) {
+			return p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond();
+		}
+
+		/**
+		 * @return the name of the engine
+		 */
+		public String getEngine() {
+			return engine;
+		}
+
+		/**
+		 * @return the largest difference with the reference, in seconds
+		 */
+		public int getMaxDeviation() {
+			return maxDeviation;
+		}
+
+		/**
+		 * @return the number of times compared
+		 */
+		public long getComparisons() {
+			return comparisons;
+		}
+
+		/**
+		 * @return the number of times computed by one engine only
+		 */
+		public long getValidMismatches() {
+			return validMismatches;
+		}
+
+		/**
+		 * @return the number of times with different extreme switches
+		 */
+		public long getExtremeMismatches() {
+			return extremeMismatches;
+		}
+
+		/**
+		 * @return time of the reference asked the days over time of the
+		 *  engine, 0 if not timed
+		 */
+		public double getSpeedup() {
+			return queryNanos == 0 ? 0 : referenceNanos / (double) queryNanos;
+		}
+
+		public String toString() {
+			return String.format("%-10s %8d %6d %6d %10.1f %10.1f %7.2fx  %s",
+					engine, maxDeviation, validMismatches, extremeMismatches,
+					setupNanos / 1e6, queryNanos / 1e6, getSpeedup(), worst);
+		}
+	}
+
+}
@@ -0,0 +1,243 @@
+package net.sourceforge.jitl.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sourceforge.jitl.ExtremeLatitude;
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.PrayerTable;
+import net.sourceforge.jitl.TimetableFile;
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Headless generator of yearly timetables. Reads a list of cities and writes
+ * one CSV timetable per city, the cities being computed in parallel.
+ * <p>
+ * Each line of the city list is
+ * <code>name,latitude,longitude,gmtDiff[,seaLevel]</code>. Blank lines and
+ * lines starting with <code>#</code> are ignored. Each timetable has one line
+ * per day with the six times. Extreme times are followed by <code>*</code>
+ * and times that cannot be computed are written <code>--:--:--</code>.
+ * <p>
+ * With <code>--binary ZONE</code>, all the cities go instead into a single
+ * binary TimetableFile, their GMT difference being taken from the zone.
+ */
+public final class TimetableGenerator {
+
+	private static final String USAGE = "usage: TimetableGenerator [--year YEAR]"
+			+ " [--method PRESET] [--extreme MODE] [--threads N] [--out DIR]"
+			+ " [--binary ZONE] CITIES";
+
+	private final int year;
+
+	private final Method method;
+
+	private final Path outDir;
+
+	private TimetableGenerator(int year, Method method, Path outDir) {
+		this.year = year;
+		this.method = method;
+		this.outDir = outDir;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int year = new GregorianCalendar().get(Calendar.YEAR);
+		String preset = "MUSLIM_LEAGUE";
+		String extreme = null;
+		String binaryZone = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path outDir = Paths.get(".");
+		Path cities = null;
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("--")) {
+				cities = Paths.get(arg);
+				continue;
+			}
+			if (i + 1 == args.length)
+				usage("Missing value for " + arg);
+			String value = args[++i];
+			switch (arg) {
+			case "--year":
+				year = Integer.parseInt(value);
+				break;
+			case "--method":
+				preset = value;
+				break;
+			case "--extreme":
+				extreme = value;
+				break;
+			case "--threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "--out":
+				outDir = Paths.get(value);
+				break;
+			case "--binary":
+				binaryZone = value;
+				break;
+			default:
+				usage("Unknown option " + arg);
+			}
+		}
+		if (cities == null)
+			usage("Missing city list");
+
+		Method method = (Method) constant(Method.class, preset);
+		method = method.copy();
+		if (extreme != null)
+			method.setExtremeLatitude((ExtremeLatitude) constant(
+					ExtremeLatitude.class, extreme));
+
+		Files.createDirectories(outDir);
+		if (binaryZone != null) {
+			System.out.println(writeBinary(readCities(cities), year, method,
+					preset, ZoneId.of(binaryZone), outDir));
+			return;
+		}
+		new TimetableGenerator(year, method, outDir).run(readCities(cities),
+				threads);
+	}
+
+	private void run(List<City> cities, int threads) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Path>> results = new ArrayList<Future<Path>>();
+
+		try {
+			for (final City city : cities)
+				results.add(executor.submit(() -> write(city)));
+			for (Future<Path> result : results)
+				System.out.println(result.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/* Computes and writes the timetable of one city. Jitl is not thread
+	 * safe, so every task has its own instance. */
+	private Path write(City city) throws IOException {
+		int days = EpochDay.lengthOfYear(year);
+		int first = EpochDay.of(year, 1, 1);
+		PrayerTable table = new PrayerTable(days);
+		Jitl itl = new Jitl(city.location, method);
+		SimpleDate date = new SimpleDate(1, 1, year);
+		Path file = outDir.resolve(city.name + ".csv");
+
+		itl.getPrayerTimesRange(date, days, table, 0);
+
+		try (BufferedWriter out = Files.newBufferedWriter(file,
+				StandardCharsets.UTF_8)) {
+			out.write("date,fajr,shuruq,thuhr,assr,maghrib,ishaa");
+			out.newLine();
+			for (int row = 0; row < days; row++) {
+				EpochDay.toDate(first + row, date);
+				out.write(String.format("%04d-%02d-%02d", year,
+						date.getMonth(), date.getDay()));
+				for (int i = 0; i < PrayerTable.PRAYERS; i++) {
+					out.write(',');
+					out.write(format(table, row, i));
+				}
+				out.newLine();
+			}
+		}
+		return file;
+	}
+
+	/* Streams all the cities into one binary file */
+	private static Path writeBinary(List<City> cities, int year, Method method,
+			String preset, ZoneId zone, Path outDir) throws IOException {
+		String[] names = new String[cities.size()];
+		Location[] locations = new Location[cities.size()];
+		Path file = outDir.resolve("timetable-" + year + ".jtt");
+
+		for (int i = 0; i < names.length; i++) {
+			names[i] = cities.get(i).name;
+			locations[i] = cities.get(i).location;
+		}
+		TimetableFile.write(file, method, preset, zone, new SimpleDate(1, 1,
+				year), EpochDay.lengthOfYear(year), names, locations);
+		return file;
+	}
+
+	private static String format(PrayerTable table, int row, int prayer) {
+		int s = table.getSecondsOfDay(row, prayer);
+
+		if (s == PrayerTable.INVALID)
+			return "--:--:--";
+		return String.format("%02d:%02d:%02d%s", s / 3600, s / 60 % 60, s % 60,
+				table.isExtreme(row, prayer) ? "*" : "");
+	}
+
+	private static List<City> readCities(Path file) throws IOException {
+		List<City> cities = new ArrayList<City>();
+
+		try (BufferedReader in = Files.newBufferedReader(file,
+				StandardCharsets.UTF_8)) {
+			String line;
+			int number = 0;
+			while ((line = in.readLine()) != null) {
+				number++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] fields = line.split(",");
+				if (fields.length < 4 || fields.length > 5)
+					throw new IllegalArgumentException(file + ":" + number
+							+ ": expected name,latitude,longitude,gmtDiff[,seaLevel]");
+				Location loc = new Location(Double.parseDouble(fields[1].trim()),
+						Double.parseDouble(fields[2].trim()),
+						Double.parseDouble(fields[3].trim()), 0);
+				if (fields.length == 5)
+					loc.setSeaLevel(Double.parseDouble(fields[4].trim()));
+				cities.add(new City(fields[0].trim(), loc));
+			}
+		}
+		return cities;
+	}
+
+	/* Method and ExtremeLatitude are enumerations of public constants */
+	private static Object constant(Class<?> type, String name) {
+		try {
+			return type.getField(name).get(null);
+		} catch (ReflectiveOperationException e) {
+			usage("Unknown " + type.getSimpleName() + " " + name);
+			return null;
+		}
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println(USAGE);
+		System.exit(2);
+	}
+
+	private static final class City {
+
+		final String name;
+
+		final Location location;
+
+		City(String name, Location location) {
+			this.name = name;
+			this.location = location;
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+package net.sourceforge.jitl;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.sourceforge.jitl.astro.Astro;
+import net.sourceforge.jitl.astro.AstroDay;
+import net.sourceforge.jitl.astro.AstroLib;
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.EphemerisCache;
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Computes the prayer times of many locations for the same date. The
+ * locations are given as parallel arrays of latitudes, longitudes and
+ * heights above sea level.
+ * <p>
+ * The geocentric values of the sun are computed once per date, then only
+ * the per location steps (topocentric correction, Shurooq/Maghrib, Thuhr,
+ * Assr, Fajr/Ishaa and the extreme latitude methods) run for each location.
+ * Large batches are split across a fork-join pool.
+ * <p>
+ * All locations of a batch share the same GMT difference, since it is part
+ * of the Julian day the geocentric values are computed for.
+ */
+public final class BatchCalculator {
+
+	/**
+	 * Batches with more locations than this are split into fork-join tasks
+	 */
+	public static final int DEFAULT_SPLIT_THRESHOLD = 256;
+
+	private final Method method;
+
+	private final Ephemeris ephemeris;
+
+	private final ForkJoinPool pool;
+
+	private final int splitThreshold;
+
+	/**
+	 * Creates a batch calculator using the shared ephemeris cache and the
+	 * common fork-join pool
+	 * @param method the method used in the calculation, copied
+	 */
+	public BatchCalculator(Method method) {
+		this(method, EphemerisCache.shared(), ForkJoinPool.commonPool(),
+				DEFAULT_SPLIT_THRESHOLD);
+	}
+
+	/**
+	 * Creates a batch calculator
+	 * @param method the method used in the calculation, copied
+	 * @param ephemeris the ephemeris, called from several threads
+	 * @param pool the pool running the tasks
+	 * @param splitThreshold largest number of locations computed by a single
+	 *  task
+	 */
+	public BatchCalculator(Method method, Ephemeris ephemeris,
+			ForkJoinPool pool, int splitThreshold) {
+		if (splitThreshold < 1)
+			throw new IllegalArgumentException("Invalid split threshold: "
+					+ splitThreshold);
+		this.method = method.copy();
+		this.ephemeris = ephemeris;
+		this.pool = pool;
+		this.splitThreshold = splitThreshold;
+	}
+
+	/**
+	 * Generate the prayer times of a list of locations for one date
+	 * @param date the date of prayers
+	 * @param gmtDiff GMT difference of all the locations
+	 * @param dst daylight savings time of all the locations
+	 * @param lat latitudes in decimal degrees
+	 * @param lon longitudes in decimal degrees
+	 * @param seaLevel heights above sea level in meters, or null for sea level
+	 * @param out array receiving the prayer times of each location. Empty
+	 *  (null) slots are filled with new DayPrayers instances
+	 */
+	public void getPrayerTimes(final SimpleDate date, double gmtDiff, int dst,
+			double[] lat, double[] lon, double[] seaLevel, DayPrayers[] out) {
+		if (out.length < lat.length)
+			throw new IllegalArgumentException(
+					"Location and result arrays must have the same length");
+
+		getPrayerTimes(date, gmtDiff, dst, lat, lon, seaLevel, out, null);
+	}
+
+	/**
+	 * Generate the prayer times of a list of locations for one date into a
+	 * PrayerTable, row <code>i</code> receiving location <code>i</code>
+	 * @see #getPrayerTimes(SimpleDate, double, int, double[], double[], double[], DayPrayers[])
+	 */
+	public void getPrayerTimes(final SimpleDate date, double gmtDiff, int dst,
+			double[] lat, double[] lon, double[] seaLevel, PrayerTable out) {
+		if (out.getRowCount() < lat.length)
+			throw new IllegalArgumentException(
+					"Location and result arrays must have the same length");
+
+		getPrayerTimes(date, gmtDiff, dst, lat, lon, seaLevel, null, out);
+	}
+
+	private void getPrayerTimes(final SimpleDate date, double gmtDiff, int dst,
+			double[] lat, double[] lon, double[] seaLevel, DayPrayers[] out,
+			PrayerTable table) {
+		int count = lat.length;
+		Astro geoAstro = new Astro();
+
+		if (lon.length != count || (seaLevel != null && seaLevel.length != count))
+			throw new IllegalArgumentException(
+					"Location and result arrays must have the same length");
+
+		/* The only ephemeris work of the whole batch */
+		DayCouple dc = new DayCouple(EpochDay.of(date), gmtDiff, dst);
+		AstroLib.getAstroWindowByDay(dc.getJulianDay(), geoAstro,
+				new AstroDay(), ephemeris);
+
+		Batch batch = new Batch(dc, geoAstro, gmtDiff, dst, lat, lon,
+				seaLevel, out, table, 0, count);
+		if (count <= splitThreshold)
+			batch.compute();
+		else
+			pool.invoke(batch);
+	}
+
+	private final class Batch extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final DayCouple dc;
+
+		private final Astro geoAstro;
+
+		private final double gmtDiff;
+
+		private final int dst;
+
+		private final double[] lat;
+
+		private final double[] lon;
+
+		private final double[] seaLevel;
+
+		private final DayPrayers[] out;
+
+		private final PrayerTable table;
+
+		private final int from;
+
+		private final int to;
+
+		Batch(DayCouple dc, Astro geoAstro, double gmtDiff, int dst,
+				double[] lat, double[] lon, double[] seaLevel,
+				DayPrayers[] out, PrayerTable table, int from, int to) {
+			this.dc = dc;
+			this.geoAstro = geoAstro;
+			this.gmtDiff = gmtDiff;
+			this.dst = dst;
+			this.lat = lat;
+			this.lon = lon;
+			this.seaLevel = seaLevel;
+			this.out = out;
+			this.table = table;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from > splitThreshold) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Batch(dc, geoAstro, gmtDiff, dst, lat, lon,
+						seaLevel, out, table, from, middle),
+						new Batch(dc, geoAstro, gmtDiff, dst, lat, lon,
+								seaLevel, out, table, middle, to));
+				return;
+			}
+
+			Location loc = new Location(0, 0, gmtDiff, dst);
+			Astro topAstro = new Astro();
+			Jitl worker = new Jitl(loc, method);
+			DayPrayers pt = table != null ? new DayPrayers() : null;
+			worker.setEphemeris(ephemeris);
+
+			for (int i = from; i < to; i++) {
+				loc.setDegreeLat(lat[i]);
+				loc.setDegreeLong(lon[i]);
+				loc.setSeaLevel(seaLevel == null ? 0 : seaLevel[i]);
+				if (table == null) {
+					if (out[i] == null)
+						out[i] = new DayPrayers();
+					pt = out[i];
+				}
+
+				AstroLib.computeTopAstro(loc, geoAstro, topAstro);
+				worker.getPrayerTimesByTopAstro(dc, topAstro, pt,
+						CompiledMethod.SLOT_FAJR);
+				if (table != null)
+					worker.setTableRow(table, i, pt);
+			}
+		}
+	}
+
+}
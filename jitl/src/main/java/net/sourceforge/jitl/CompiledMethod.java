@@ -0,0 +1,239 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Utils;
+
+/**
+ * Method resolved once into the constants used by the daily calculation:
+ * sines of the fajr and ishaa angles, the assr shadow ratio, the extreme
+ * latitude method as an int, and the offset and rounding of each prayer.
+ * The imsaak variants of the method are compiled along with it.
+ * <p>
+ * A compiled method keeps a copy of the settings it was built from, so Jitl
+ * can tell when the Method it was given has been modified since.
+ */
+final class CompiledMethod {
+
+	/* Slots of the offsets and rounding tables. The six prayers come first,
+	 * in the DayPrayers order. */
+	static final int SLOT_FAJR = 0;
+
+	static final int SLOT_IMSAAK = 6;
+
+	static final int SLOT_NEXTFAJR = 7;
+
+	static final int SLOT_COUNT = 8;
+
+	/* Extreme latitude methods */
+	static final int EX_NONE = 0;
+
+	static final int EX_LAT_ALL = 1;
+
+	static final int EX_LAT_ALWAYS = 2;
+
+	static final int EX_LAT_INVALID = 3;
+
+	static final int EX_GOOD_ALL = 4;
+
+	static final int EX_GOOD_INVALID = 5;
+
+	static final int EX_GOOD_DIF = 6;
+
+	static final int EX_SEVEN_NIGHT_ALWAYS = 7;
+
+	static final int EX_SEVEN_NIGHT_INVALID = 8;
+
+	static final int EX_SEVEN_DAY_ALWAYS = 9;
+
+	static final int EX_SEVEN_DAY_INVALID = 10;
+
+	static final int EX_HALF_ALWAYS = 11;
+
+	static final int EX_HALF_INVALID = 12;
+
+	static final int EX_MIN_ALWAYS = 13;
+
+	static final int EX_MIN_INVALID = 14;
+
+	private static final ExtremeLatitude[] EXTREMES = {
+		ExtremeLatitude.NONE_EX, ExtremeLatitude.LAT_ALL,
+		ExtremeLatitude.LAT_ALWAYS, ExtremeLatitude.LAT_INVALID,
+		ExtremeLatitude.GOOD_ALL, ExtremeLatitude.GOOD_INVALID,
+		ExtremeLatitude.GOOD_DIF, ExtremeLatitude.SEVEN_NIGHT_ALWAYS,
+		ExtremeLatitude.SEVEN_NIGHT_INVALID,
+		ExtremeLatitude.SEVEN_DAY_ALWAYS, ExtremeLatitude.SEVEN_DAY_INVALID,
+		ExtremeLatitude.HALF_ALWAYS, ExtremeLatitude.HALF_INVALID,
+		ExtremeLatitude.MIN_ALWAYS, ExtremeLatitude.MIN_INVALID };
+
+	private static final PrayerTime[] SLOTS = { PrayerTime.FAJR,
+		PrayerTime.SHUROOQ, PrayerTime.THUHR, PrayerTime.ASSR,
+		PrayerTime.MAGHRIB, PrayerTime.ISHAA, PrayerTime.IMSAAK,
+		PrayerTime.NEXTFAJR };
+
+	private final Method source;
+
+	final double fajrAng, ishaaAng;
+
+	final double sinFajrAng, sinIshaaAng;
+
+	/* Shadow ratio of assr: 1 for Shaafi, 2 for Hanafi */
+	final int mathhab;
+
+	final double nearestLat;
+
+	final int extreme;
+
+	/* The extreme method is only used when a time cannot be computed */
+	final boolean extremeIfInvalid;
+
+	/* Fajr and ishaa intervals are applied after the extreme method */
+	final boolean intervals;
+
+	final int fajrInv, ishaaInv;
+
+	/* Intervals in hours */
+	final double fajrInvHours, ishaaInvHours;
+
+	/* Intervals in whole hours, as used by MIN_INVALID */
+	final int fajrInvWholeHours, ishaaInvWholeHours;
+
+	final boolean offset;
+
+	/* Offset of each slot in hours */
+	final double[] offsets = new double[SLOTS.length];
+
+	/* Seconds are dropped from the slot, and the minute rounded up from
+	 * roundUpSec seconds (never when 60) */
+	final boolean[] dropSeconds = new boolean[SLOTS.length];
+
+	final int[] roundUpSec = new int[SLOTS.length];
+
+	/* Imsaak from the fajr angle plus the imsaak angle, needing its own
+	 * fajr formula result, or from an interval or offset */
+	final boolean imsaakByAngle;
+
+	/* Method of the first imsaak calculation, and of the second one used
+	 * when the first fajr is extreme. Null for the imsaak variants. */
+	final CompiledMethod imsaak, imsaakExtreme;
+
+	/**
+	 * Compiles a method and its imsaak variants
+	 * @param method the method, copied
+	 */
+	CompiledMethod(Method method) {
+		this(method, true);
+	}
+
+	private CompiledMethod(Method method, boolean variants) {
+		int i;
+		Rounding round = method.getRound();
+
+		this.source = method.copy();
+		this.fajrAng = method.getFajrAng();
+		this.ishaaAng = method.getIshaaAng();
+		this.sinFajrAng = Math.sin(Utils.DEG_TO_RAD(fajrAng));
+		this.sinIshaaAng = Math.sin(Utils.DEG_TO_RAD(ishaaAng));
+		this.mathhab = method.getMathhab() == Mathhab.SHAAFI ? 1 : 2;
+		this.nearestLat = method.getNearestLat();
+
+		i = 0;
+		while (i < EXTREMES.length
+				&& EXTREMES[i] != method.getExtremeLatitude())
+			i++;
+		/* Unknown methods, GOOD_DIF included, only reset the switches */
+		this.extreme = i < EXTREMES.length ? i : EX_GOOD_DIF;
+		this.extremeIfInvalid = extreme == EX_GOOD_INVALID
+				|| extreme == EX_LAT_INVALID
+				|| extreme == EX_SEVEN_NIGHT_INVALID
+				|| extreme == EX_SEVEN_DAY_INVALID
+				|| extreme == EX_HALF_INVALID;
+		this.intervals = extreme != EX_MIN_INVALID
+				&& extreme != EX_HALF_INVALID && extreme != EX_HALF_ALWAYS;
+
+		this.fajrInv = method.getFajrInv();
+		this.ishaaInv = method.getIshaaInv();
+		this.fajrInvHours = fajrInv / 60.0;
+		this.ishaaInvHours = ishaaInv / 60.0;
+		this.fajrInvWholeHours = (int) ((double) fajrInv / 60.0);
+		this.ishaaInvWholeHours = (int) ((double) ishaaInv / 60.0);
+
+		this.offset = method.getOffset();
+		for (i = 0; i < SLOTS.length; i++) {
+			PrayerTime type = SLOTS[i];
+
+			if (type == PrayerTime.IMSAAK || type == PrayerTime.NEXTFAJR)
+				offsets[i] = method.getFajrOffset() / 60.0;
+			else
+				offsets[i] = method.getOffset(type) / 60.0;
+
+			roundUpSec[i] = 60;
+			if (round == Rounding.NORMAL) {
+				dropSeconds[i] = true;
+				roundUpSec[i] = (int) Utils.DEFAULT_ROUND_SEC;
+			} else if (round == Rounding.SPECIAL || round == Rounding.AGRESSIVE) {
+				dropSeconds[i] = true;
+				/* Shurooq and imsaak only lose their seconds */
+				if (type != PrayerTime.SHUROOQ && type != PrayerTime.IMSAAK)
+					roundUpSec[i] = (int) (round == Rounding.SPECIAL ? Utils.DEFAULT_ROUND_SEC
+							: Utils.AGGRESSIVE_ROUND_SEC);
+			}
+		}
+
+		this.imsaakByAngle = method.getFajrInv() == 0
+				&& method.getImsaakInv() == 0;
+		if (variants) {
+			this.imsaak = new CompiledMethod(imsaakMethod(method), false);
+			this.imsaakExtreme = new CompiledMethod(
+					imsaakExtremeMethod(method), false);
+		} else {
+			this.imsaak = null;
+			this.imsaakExtreme = null;
+		}
+	}
+
+	/**
+	 * @param method a method
+	 * @return true if this was compiled from a method with the same settings
+	 */
+	boolean isCompiledFrom(Method method) {
+		return source.sameSettings(method);
+	}
+
+	private static Method imsaakMethod(Method method) {
+		Method tmpConf = method.copy();
+
+		if (method.getFajrInv() != 0) {
+			if (method.getImsaakInv() == 0)
+				tmpConf
+				.setFajrInv((int) (tmpConf.getFajrInv() + Utils.DEF_IMSAAK_INTERVAL));
+			else
+				tmpConf.setFajrInv((int) (tmpConf.getFajrInv() + method
+						.getImsaakInv()));
+
+		} else if (method.getImsaakInv() != 0) {
+			/* use an inv even if al-Fajr is computed (Indonesia?) */
+			tmpConf.setFajrOffset(tmpConf.getFajrOffset()
+					+ (method.getImsaakInv() * -1));
+			tmpConf.setOffset(true);
+		} else {
+			tmpConf.setFajrAng(tmpConf.getFajrAng() + method.getImsaakAng());
+		}
+		return tmpConf;
+	}
+
+	/* In case of an extreme Fajr time calculation use intervals for Imsaak */
+	private static Method imsaakExtremeMethod(Method method) {
+		Method tmpConf = method.copy();
+
+		if (method.getImsaakInv() == 0) {
+			tmpConf.setFajrOffset(tmpConf.getFajrOffset()
+					- Utils.DEF_IMSAAK_INTERVAL);
+			tmpConf.setOffset(true);
+		} else {
+			tmpConf.setFajrOffset(tmpConf.getFajrOffset()
+					- method.getImsaakInv());
+			tmpConf.setOffset(true);
+		}
+		return tmpConf;
+	}
+
+}
@@ -0,0 +1,62 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+
+/* The day being computed: its epoch day, the Julian day of its local
+ * midnight, the length of its year and the daylight saving hours added to
+ * its times */
+class DayCouple {
+	private int epochDay;
+
+	private int lastDay;
+
+	private double julianDay;
+
+	private double gmt;
+
+	private int dst;
+
+	public DayCouple() {
+	}
+
+	public DayCouple(int epochDay, double gmt, int dst) {
+		setDay(epochDay, gmt, dst);
+	}
+
+	public void setDay(int epochDay, double gmt, int dst) {
+		this.epochDay = epochDay;
+		this.gmt = gmt;
+		this.dst = dst;
+		julianDay = EpochDay.toJulianDay(epochDay, gmt);
+		lastDay = EpochDay.lengthOfYear(EpochDay.yearOf(epochDay));
+	}
+
+	/* Steps to the following day, across month and year ends */
+	public void nextDay() {
+		setDay(epochDay + 1, gmt, dst);
+	}
+
+	public int getEpochDay() {
+		return epochDay;
+	}
+
+	public double getJulianDay() {
+		return julianDay;
+	}
+
+	public int getLastDay() {
+		return lastDay;
+	}
+
+	public int getDst() {
+		return dst;
+	}
+
+	/* Epoch second of a time in seconds since the local midnight of the
+	 * day, daylight saving time included */
+	public long toEpochSecond(int seconds) {
+		return epochDay * 86400L + seconds - Math.round(gmt * 3600) - dst
+				* 3600;
+	}
+
+}
@@ -36,37 +36,39 @@ package net.sourceforge.jitl;
  */
 public class ExtremeLatitude {
 	
-	private ExtremeLatitude() {
-		
+	private final String name;
+
+	private ExtremeLatitude(String name) {
+		this.name = name;
 	}
 	
     /**
      * none. If unable to calculate, leave only the invalid prayer
      *           time as 99:99.
      */
-	public static final ExtremeLatitude NONE_EX = new ExtremeLatitude();
+	public static final ExtremeLatitude NONE_EX = new ExtremeLatitude("NONE_EX");
     
     /**
      * Nearest Latitude: Apply to all prayer times always.
      */	
-	public static final ExtremeLatitude LAT_ALL = new ExtremeLatitude();
+	public static final ExtremeLatitude LAT_ALL = new ExtremeLatitude("LAT_ALL");
 	  
     /**
      * Nearest Latitude: Apply to Fajr and Ishaa times always.
      */
-	public static final ExtremeLatitude LAT_ALWAYS = new ExtremeLatitude();
+	public static final ExtremeLatitude LAT_ALWAYS = new ExtremeLatitude("LAT_ALWAYS");
 	
 	/**
 	 * Nearest Latitude: Apply to Fajr and Ishaa times but only if
      *                       the library has detected that the current
      *                       Fajr or Ishaa time is invalid.
 	 */
-	public static final ExtremeLatitude LAT_INVALID  = new ExtremeLatitude();
+	public static final ExtremeLatitude LAT_INVALID  = new ExtremeLatitude("LAT_INVALID");
 	
 	/**
 	 * Nearest Good Day: Apply to all prayer times always.
 	 */	
-	public static final ExtremeLatitude GOOD_ALL = new ExtremeLatitude();
+	public static final ExtremeLatitude GOOD_ALL = new ExtremeLatitude("GOOD_ALL");
 	
 	/**
 	 * Nearest Good Day: Apply to Fajr and Ishaa times but only if
@@ -74,12 +76,12 @@ public class ExtremeLatitude {
      *                       Fajr or Ishaa time is invalid. This is the
      *                       default method. (Default)
 	 */
-	public static final ExtremeLatitude GOOD_INVALID = new ExtremeLatitude();
+	public static final ExtremeLatitude GOOD_INVALID = new ExtremeLatitude("GOOD_INVALID");
 	
 	/**
 	 * 1/7th of Night: Apply to Fajr and Ishaa times always.
 	 */
-	public static final ExtremeLatitude SEVEN_NIGHT_ALWAYS = new ExtremeLatitude();
+	public static final ExtremeLatitude SEVEN_NIGHT_ALWAYS = new ExtremeLatitude("SEVEN_NIGHT_ALWAYS");
 
 	/**
 	 * 1/7th of Night: Apply to Fajr and Ishaa times but only if
@@ -87,24 +89,24 @@ public class ExtremeLatitude {
      *                       Fajr or Ishaa time is invalid.
      *
 	 */
-	public static final ExtremeLatitude SEVEN_NIGHT_INVALID = new ExtremeLatitude();
+	public static final ExtremeLatitude SEVEN_NIGHT_INVALID = new ExtremeLatitude("SEVEN_NIGHT_INVALID");
 	
 	/**
 	 * 1/7th of Day: Apply to Fajr and Ishaa times always.
 	 */
-	public static final ExtremeLatitude SEVEN_DAY_ALWAYS = new ExtremeLatitude();
+	public static final ExtremeLatitude SEVEN_DAY_ALWAYS = new ExtremeLatitude("SEVEN_DAY_ALWAYS");
 	
 	/**
 	 * 1/7th of Day: Apply to Fajr and Ishaa times but only if the
      *                       library has detected that the current Fajr
      *                       or Ishaa time is invalid.
 	 */
-	public static final ExtremeLatitude SEVEN_DAY_INVALID = new ExtremeLatitude();
+	public static final ExtremeLatitude SEVEN_DAY_INVALID = new ExtremeLatitude("SEVEN_DAY_INVALID");
 	
 	/**
 	 * Half of the Night: Apply to Fajr and Ishaa times always.
 	 */
-	public static final ExtremeLatitude HALF_ALWAYS = new ExtremeLatitude();
+	public static final ExtremeLatitude HALF_ALWAYS = new ExtremeLatitude("HALF_ALWAYS");
 	
 	/**
 	 * Half of the Night: Apply to Fajr and Ishaa times but only
@@ -112,12 +114,12 @@ public class ExtremeLatitude {
      *                         current Fajr or Ishaa time is
      *                         invalid.
 	 */	
-	public static final ExtremeLatitude HALF_INVALID = new ExtremeLatitude();
+	public static final ExtremeLatitude HALF_INVALID = new ExtremeLatitude("HALF_INVALID");
 	
 	/**
 	 * Minutes from Shorooq/Maghrib: Apply to Fajr and Ishaa times always.
 	 */
-	public static final ExtremeLatitude MIN_ALWAYS = new ExtremeLatitude();
+	public static final ExtremeLatitude MIN_ALWAYS = new ExtremeLatitude("MIN_ALWAYS");
 
 	/**
 	 * Minutes from Shorooq/Maghrib: Apply to Fajr and Ishaa times but only if
@@ -125,13 +127,17 @@ public class ExtremeLatitude {
      *                       current Fajr or Ishaa time is invalid.
      *
 	 */
-	public static final ExtremeLatitude MIN_INVALID = new ExtremeLatitude();
+	public static final ExtremeLatitude MIN_INVALID = new ExtremeLatitude("MIN_INVALID");
 	
 	/**
 	 * Nearest Good Day: Different good days for Fajr and Ishaa (Not
 	 * implemented)
 	 */
-	public static final ExtremeLatitude GOOD_DIF = new ExtremeLatitude();
+	public static final ExtremeLatitude GOOD_DIF = new ExtremeLatitude("GOOD_DIF");
+
+	public String toString() {
+		return name;
+	}
 
 
 }
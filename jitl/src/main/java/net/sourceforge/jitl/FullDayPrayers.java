@@ -0,0 +1,38 @@
+package net.sourceforge.jitl;
+
+/**
+ * Prayer times of a day together with the imsaak time of the day and the
+ * fajr time of the next day
+ * @see Jitl#getFullDayPrayers(net.sourceforge.jitl.astro.SimpleDate, FullDayPrayers)
+ */
+public class FullDayPrayers extends DayPrayers {
+	private Prayer imsaak = new Prayer();
+	
+	private Prayer nextFajr = new Prayer();
+	
+	/**
+	 * Imsaak time
+	 * @return imsaak time
+	 */
+	public Prayer imsaak() {
+		return imsaak;
+	}
+	
+	/**
+	 * Fajr time of the next day
+	 * @return next day fajr time
+	 */
+	public Prayer nextFajr() {
+		return nextFajr;
+	}
+	
+	/**
+	 * convert prayer times to a string.
+	 * @return imsaak, prayer times and next day fajr as a string. It contains
+	 *         8 lines
+	 */
+	public String toString() {
+		return imsaak.toString() + "\n" + super.toString()
+				+ nextFajr.toString() + "\n";
+	}
+}
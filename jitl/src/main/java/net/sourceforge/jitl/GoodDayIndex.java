@@ -0,0 +1,142 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Astro;
+import net.sourceforge.jitl.astro.AstroDay;
+import net.sourceforge.jitl.astro.AstroLib;
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.Utils;
+
+/**
+ * Index of the nearest good days used by the GOOD_* extreme latitude
+ * methods. A good day is a day where both fajr and ishaa can be computed at
+ * the given latitude, fajr angle and ishaa angle.
+ * <p>
+ * The index covers a block of BLOCK_DAYS days plus one block on each side,
+ * so it answers any search of up to a year around a day of the block. It is
+ * built by walking the covered days in order, one ephemeris day per step,
+ * after which finding the nearest good day is two array reads.
+ */
+final class GoodDayIndex {
+
+	/* A block is a bit more than a year, the longest search of Jitl */
+	static final int BLOCK_DAYS = 366;
+
+	/* No good day in the covered days */
+	private static final int NONE = Integer.MAX_VALUE;
+
+	private long block;
+
+	private long fraction;
+
+	private double lat, lon, seaLevel, fajrAng, ishaaAng;
+
+	private Ephemeris ephemeris;
+
+	private boolean built;
+
+	/* Distance to the nearest good day before or at, and after or at, each
+	 * day of the block */
+	private final int[] prev = new int[BLOCK_DAYS];
+
+	private final int[] next = new int[BLOCK_DAYS];
+
+	private final boolean[] good = new boolean[3 * BLOCK_DAYS];
+
+	private final Astro window = new Astro();
+
+	private final Astro topAstro = new Astro();
+
+	private final AstroDay astroDay = new AstroDay();
+
+	/**
+	 * Find the nearest good day, building the index first if it does not
+	 * cover this day, location and method
+	 * @param julianDay the day
+	 * @param maxDistance largest distance in days
+	 * @return the Julian day of the nearest good day, the previous one on a
+	 *  tie, or NaN if there is none within maxDistance
+	 */
+	double find(double julianDay, int maxDistance, Location loc,
+			CompiledMethod method, Ephemeris ephemeris) {
+		double floor = Math.floor(julianDay);
+		long day = (long) floor;
+		long block = Math.floorDiv(day, BLOCK_DAYS);
+		int i, p, n;
+
+		if (!covers(julianDay, loc, method, ephemeris))
+			build(block, julianDay - floor, loc, method, ephemeris);
+
+		i = (int) (day - block * BLOCK_DAYS);
+		p = prev[i];
+		n = next[i];
+		if (p <= n && p <= maxDistance)
+			return julianDay - p;
+		if (n < p && n <= maxDistance)
+			return julianDay + n;
+		return Double.NaN;
+	}
+
+	/**
+	 * @return true if the index can answer for this day, location and method
+	 *  without being built again
+	 */
+	boolean covers(double julianDay, Location loc, CompiledMethod method,
+			Ephemeris ephemeris) {
+		double floor = Math.floor(julianDay);
+
+		return built && Math.floorDiv((long) floor, BLOCK_DAYS) == block
+				&& Double.doubleToLongBits(julianDay - floor) == fraction
+				&& loc.getDegreeLat() == lat && loc.getDegreeLong() == lon
+				&& loc.getSeaLevel() == seaLevel
+				&& method.fajrAng == fajrAng
+				&& method.ishaaAng == ishaaAng
+				&& ephemeris == this.ephemeris;
+	}
+
+	private void build(long block, double fraction, Location loc,
+			CompiledMethod method, Ephemeris ephemeris) {
+		double first = (block - 1) * BLOCK_DAYS + fraction;
+		double lat = loc.getDegreeLat();
+		double sinLat = loc.getSinLat(), cosLat = loc.getCosLat();
+		double dec;
+		int i, distance;
+
+		this.built = false;
+
+		/* Consecutive days only shift the window by one day */
+		for (i = 0; i < good.length; i++) {
+			AstroLib.getAstroValuesByDay(first + i, loc, window, topAstro,
+					astroDay, ephemeris);
+			dec = Utils.DEG_TO_RAD(topAstro.getDec()[1]);
+			good[i] = Jitl.getFajIshBySin(sinLat, cosLat, dec,
+					method.sinFajrAng) != 99
+					&& Jitl.getFajIshBySin(sinLat, cosLat, dec,
+							method.sinIshaaAng) != 99;
+		}
+
+		distance = NONE;
+		for (i = 0; i < 2 * BLOCK_DAYS; i++) {
+			distance = good[i] ? 0 : (distance == NONE ? NONE : distance + 1);
+			if (i >= BLOCK_DAYS)
+				prev[i - BLOCK_DAYS] = distance;
+		}
+		distance = NONE;
+		for (i = good.length - 1; i >= BLOCK_DAYS; i--) {
+			distance = good[i] ? 0 : (distance == NONE ? NONE : distance + 1);
+			if (i < 2 * BLOCK_DAYS)
+				next[i - BLOCK_DAYS] = distance;
+		}
+
+		this.block = block;
+		this.fraction = Double.doubleToLongBits(fraction);
+		this.lat = lat;
+		this.lon = loc.getDegreeLong();
+		this.seaLevel = loc.getSeaLevel();
+		this.fajrAng = method.fajrAng;
+		this.ishaaAng = method.ishaaAng;
+		this.ephemeris = ephemeris;
+		this.built = true;
+	}
+
+}
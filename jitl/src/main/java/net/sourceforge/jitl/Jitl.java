@@ -0,0 +1,1143 @@
+package net.sourceforge.jitl;
+
+import java.time.ZoneId;
+import java.util.GregorianCalendar;
+
+import net.sourceforge.jitl.astro.Astro;
+import net.sourceforge.jitl.astro.AstroDay;
+import net.sourceforge.jitl.astro.AstroLib;
+import net.sourceforge.jitl.astro.SimpleDate;
+import net.sourceforge.jitl.astro.Dms;
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.EphemerisCache;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.Utils;
+
+/**
+ * This the main class of the JITL library. You can use static methods
+ * to do qibla calculation but you will need to create a Jitl instance
+ * to calculate prayer times for a specific location, using a specified method.
+ * <p>
+ * A Jitl instance keeps the scratch structures used by the calculation, so
+ * once it is warmed up <code>getPrayerTimes(SimpleDate, DayPrayers)</code>
+ * does not allocate. For the same reason an instance must not be shared
+ * between threads.
+ * <p>
+ * Jitl is the reference PrayerEngine, the one the other engines are
+ * compared with.
+ *
+ */
+public class Jitl implements PrayerEngine {
+	
+	/**
+	 * minor version of jitl
+	 */
+	static final int VERSION_MINOR = 0;
+	
+	/**
+	 * major version of jitl
+	 */
+	static final int VERSION_MAJOR = 1;
+	
+	
+	/* This is Used for storing some formulae results between
+	 * multiple getPrayerTimes calls*/
+	private Astro astroCache = new Astro();
+	
+	/* Scratch structures reused by every getPrayerTimesByDay call */
+	private final Astro tAstro = new Astro();
+	
+	private final AstroDay astroDay = new AstroDay();
+	
+	private final double tempPrayer[] = new double[6];
+	
+	private final Location exLoc = new Location(0, 0, 0, 0);
+	
+	private final DayCouple dayCouple = new DayCouple();
+	
+	private final DayPrayers rowPrayers = new DayPrayers();
+	
+	/* Unwrapped output of the last base6hm call of every slot */
+	private final int[] slotSeconds = new int[CompiledMethod.SLOT_COUNT];
+	
+	private ZoneOffsets zoneOffsets;
+	
+	/* Nearest good days and the window of the good day, kept apart from
+	 * astroCache so the next day can still shift it. There are two indexes
+	 * because the imsaak calculation uses its own angles. */
+	private final GoodDayIndex[] goodDays = { new GoodDayIndex(),
+		new GoodDayIndex() };
+	
+	private int lastGoodDays;
+	
+	private final Astro exAstro = new Astro();
+	
+	private final Astro exTopAstro = new Astro();
+	
+	/* Formulae results of the current day, shared by the day prayers and
+	 * imsaak, and the scratch copies used for imsaak and the next day */
+	private final double basis[] = new double[6];
+	
+	private final double exBasis[] = new double[6];
+	
+	/* Method compiled into the constants of the daily calculation */
+	private CompiledMethod compiled;
+	
+	private final DayPrayers exPrayers = new DayPrayers();
+	
+	private Ephemeris ephemeris = EphemerisCache.shared();
+	
+	private static final double SECOND_EPSILON = 1e-6;
+	
+	private static final double SIN_CENTER_OF_SUN = Math.sin(Utils
+			.DEG_TO_RAD(Utils.CENTER_OF_SUN_ANGLE));
+	
+	
+	private Location loc;
+	
+	private Method method;
+
+	
+	/**
+	 * Creates the jitl main class
+	 * @param loc the location
+	 * @param method the method used in the calculation. You can use
+	 *  predefined methods for example <code>Method.MUSLIM_LEAGUE</code> or creates
+	 *  your own personalized method.
+	 */
+	public Jitl(Location loc, Method method) {
+		this.loc = loc;
+		this.method = method;
+	}
+	
+	/**
+	 * changes the location
+	 * @param loc the new location
+	 */
+	public void setLocation(Location loc) {
+		this.loc = loc;
+	}
+	
+	/**
+	 * changes the method
+	 * @param method the new method
+	 */
+	public void setMethod(Method method) {
+		this.method = method;
+	}
+	
+	/**
+	 * changes where the astronomical values of each day come from. The
+	 * default is the process wide cache of the VSOP87 series,
+	 * <code>EphemerisCache.shared()</code>
+	 * @param ephemeris the new ephemeris
+	 */
+	public void setEphemeris(Ephemeris ephemeris) {
+		this.ephemeris = ephemeris;
+	}
+		
+	/**
+	 * generates prayer times
+	 * @param date the date of prayers
+	 * @return a DayPrayers object containing time of different
+	 * prayers 
+	 */
+	public DayPrayers getPrayerTimes(final GregorianCalendar date) {
+		return getPrayerTimes(new SimpleDate(date));
+	}
+	
+	/**
+	 * Generate prayer times from a GregorianCalendar date
+	 * @param date the date of prayers
+	 * @param pt instance of a DayPrayers object
+	 */
+	public void getPrayerTimes(final GregorianCalendar date, DayPrayers pt) {
+		getPrayerTimes(new SimpleDate(date), pt);
+	}
+	
+	/**
+	 * Create a DayPrayers instance and fill it with prayer times
+	 * @param date SimpleDate object
+	 * @return a DayPrayers instance containing prayer times
+	 */
+	public DayPrayers getPrayerTimes(final SimpleDate date) {
+		DayPrayers dp = new DayPrayers();
+		getPrayerTimes(date, dp);
+		
+		return dp;
+	}
+	
+	/**
+	 * Generate prayer times from a SimpleDate date
+	 * @param date SimpleDate object
+	 * @param pt instance of a DayPrayers object
+	 */
+	public void getPrayerTimes(final SimpleDate date, DayPrayers pt) {
+		getDayInfo(date, loc, dayCouple);
+		getPrayerTimesByDay(dayCouple, pt, CompiledMethod.SLOT_FAJR);
+	}
+
+	/**
+	 * Create a DayPrayers array and fill it with the prayer times of
+	 * consecutive days
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @return an array of <code>days</code> DayPrayers instances
+	 * @see #getPrayerTimesRange(SimpleDate, int, DayPrayers[])
+	 */
+	public DayPrayers[] getPrayerTimesRange(final SimpleDate start, int days) {
+		DayPrayers[] range = new DayPrayers[days];
+		getPrayerTimesRange(start, days, range);
+
+		return range;
+	}
+
+	/**
+	 * Generate prayer times for consecutive days. The days are walked in
+	 * order, so the three day window kept in the astro cache is shifted by
+	 * one day at each step and only the new day has to be computed. The
+	 * days are asked from the ephemeris in order, which is the case a
+	 * RecurrenceEphemeris is made for.
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @param buffer array filled from index 0 with the prayer times of each
+	 *  day. Empty (null) slots are filled with new DayPrayers instances
+	 */
+	public void getPrayerTimesRange(final SimpleDate start, int days,
+			DayPrayers[] buffer) {
+		getPrayerTimesRange(EpochDay.of(start), days, buffer);
+	}
+
+	/**
+	 * Generate prayer times for consecutive days from an epoch day
+	 * @param startEpochDay first day of the range, in days since 1 January
+	 *  1970
+	 * @param days number of days to compute
+	 * @param buffer array filled from index 0 with the prayer times of each
+	 *  day. Empty (null) slots are filled with new DayPrayers instances
+	 * @see #getPrayerTimesRange(SimpleDate, int, DayPrayers[])
+	 * @see EpochDay
+	 */
+	public void getPrayerTimesRange(int startEpochDay, int days,
+			DayPrayers[] buffer) {
+		if (days < 0 || days > buffer.length)
+			throw new IllegalArgumentException("Cannot fit " + days
+					+ " days in a buffer of " + buffer.length);
+
+		getPrayerTimesRange(startEpochDay, days, null, buffer, null, null, 0);
+	}
+
+	/**
+	 * Generate prayer times for consecutive days in a time zone. The GMT
+	 * difference of each day is taken from the zone rules, at the local noon
+	 * of the day, so the range is right across daylight saving time
+	 * changes. The GMT difference and the daylight saving time of the
+	 * location are not used.
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @param zone time zone of the location
+	 * @param buffer array filled from index 0 with the prayer times of each
+	 *  day. Empty (null) slots are filled with new DayPrayers instances
+	 * @see ZoneOffsets
+	 */
+	public void getPrayerTimesRange(final SimpleDate start, int days,
+			ZoneId zone, DayPrayers[] buffer) {
+		if (days < 0 || days > buffer.length)
+			throw new IllegalArgumentException("Cannot fit " + days
+					+ " days in a buffer of " + buffer.length);
+
+		getPrayerTimesRange(EpochDay.of(start), days, zoneOffsets(zone),
+				buffer, null, null, 0);
+	}
+
+	/**
+	 * Generate prayer times for consecutive days into a PrayerTable, one row
+	 * per day
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @param table the table to fill
+	 * @param row row receiving the first day
+	 * @see #getPrayerTimesRange(SimpleDate, int, DayPrayers[])
+	 */
+	public void getPrayerTimesRange(final SimpleDate start, int days,
+			PrayerTable table, int row) {
+		if (days < 0 || row < 0 || row + days > table.getRowCount())
+			throw new IllegalArgumentException("Cannot fit " + days
+					+ " days at row " + row + " of a table of "
+					+ table.getRowCount());
+
+		getPrayerTimesRange(EpochDay.of(start), days, null, null, table, null,
+				row);
+	}
+
+	/**
+	 * Generate prayer times for consecutive days in a time zone into a
+	 * PrayerTable, one row per day
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @param zone time zone of the location
+	 * @param table the table to fill
+	 * @param row row receiving the first day
+	 * @see #getPrayerTimesRange(SimpleDate, int, ZoneId, DayPrayers[])
+	 */
+	public void getPrayerTimesRange(final SimpleDate start, int days,
+			ZoneId zone, PrayerTable table, int row) {
+		if (days < 0 || row < 0 || row + days > table.getRowCount())
+			throw new IllegalArgumentException("Cannot fit " + days
+					+ " days at row " + row + " of a table of "
+					+ table.getRowCount());
+
+		getPrayerTimesRange(EpochDay.of(start), days, zoneOffsets(zone), null,
+				table, null, row);
+	}
+
+	/**
+	 * Generate the prayer times of consecutive days as epoch seconds, the
+	 * seconds since 1 January 1970 UTC. Unlike a time of day, an epoch
+	 * second keeps the day a time falls on, so the times of a range can be
+	 * compared, sorted and stored as they are, a late ishaa after midnight
+	 * included. The GMT difference and daylight saving time of the location
+	 * apply to every day.
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @param out receives the six times of each day, fajr to ishaa, from
+	 *  index 0. Times that could not be computed are
+	 *  PrayerTable.INVALID_EPOCH_SECOND
+	 */
+	public void getEpochSecondsRange(final SimpleDate start, int days,
+			long[] out) {
+		if (days < 0 || days * PrayerTable.PRAYERS > out.length)
+			throw new IllegalArgumentException("Cannot fit " + days
+					+ " days in " + out.length + " times");
+
+		getPrayerTimesRange(EpochDay.of(start), days, null, null, null, out, 0);
+	}
+
+	/**
+	 * Generate the prayer times of consecutive days in a time zone as epoch
+	 * seconds
+	 * @param start first day of the range
+	 * @param days number of days to compute
+	 * @param zone time zone of the location
+	 * @param out receives the six times of each day, fajr to ishaa, from
+	 *  index 0
+	 * @see #getEpochSecondsRange(SimpleDate, int, long[])
+	 * @see #getPrayerTimesRange(SimpleDate, int, ZoneId, DayPrayers[])
+	 */
+	public void getEpochSecondsRange(final SimpleDate start, int days,
+			ZoneId zone, long[] out) {
+		if (days < 0 || days * PrayerTable.PRAYERS > out.length)
+			throw new IllegalArgumentException("Cannot fit " + days
+					+ " days in " + out.length + " times");
+
+		getPrayerTimesRange(EpochDay.of(start), days, zoneOffsets(zone), null,
+				null, out, 0);
+	}
+
+	/* Days of a zone aware range into both a table and epoch seconds, for
+	 * the writers that need the extreme switches and the unwrapped times */
+	void getPrayerTimesRange(int startEpochDay, int days, ZoneOffsets zone,
+			PrayerTable table, long[] epochs) {
+		getPrayerTimesRange(startEpochDay, days, zone, null, table, epochs, 0);
+	}
+
+	/* Offsets of the zone, kept while the same zone is asked */
+	private ZoneOffsets zoneOffsets(ZoneId zone) {
+		if (zoneOffsets == null || !zoneOffsets.getZone().equals(zone))
+			zoneOffsets = new ZoneOffsets(zone);
+		return zoneOffsets;
+	}
+
+	/* Walks the days into the DayPrayers buffer, or the table and the epoch
+	 * seconds. The table and epoch seconds are taken from the output stage
+	 * through the rowPrayers scratch instance. Without zone offsets, the
+	 * GMT difference and daylight saving time of the location apply to
+	 * every day. */
+	private void getPrayerTimesRange(int startEpochDay, int days,
+			ZoneOffsets zone, DayPrayers[] buffer, PrayerTable table,
+			long[] epochs, int row) {
+		DayCouple dc = dayCouple;
+
+		if (zone != null)
+			zone.cover(startEpochDay, startEpochDay + days);
+		else
+			dc.setDay(startEpochDay, loc.getGmtDiff(), loc.getDst());
+
+		for (int i = 0; i < days; i++) {
+			if (zone != null)
+				dc.setDay(startEpochDay + i, zone.getGmtDiff(startEpochDay + i), 0);
+			else if (i > 0)
+				dc.nextDay();
+
+			if (buffer != null) {
+				if (buffer[i] == null)
+					buffer[i] = new DayPrayers();
+				getPrayerTimesByDay(dc, buffer[i], CompiledMethod.SLOT_FAJR);
+			} else {
+				getPrayerTimesByDay(dc, rowPrayers, CompiledMethod.SLOT_FAJR);
+				if (table != null)
+					setTableRow(table, row + i, rowPrayers);
+				if (epochs != null)
+					setEpochSeconds(dc, epochs, (row + i) * PrayerTable.PRAYERS);
+			}
+		}
+	}
+
+	void getPrayerTimesByDay(DayCouple dc, DayPrayers pt, int slot) {
+		/* Start by filling the tAstro structure with the appropriate astronomical
+		 * values for this day. We also pass the cache structure to update and check
+		 * if the actual values are already available. */
+		AstroLib.getAstroValuesByDay(dc.getJulianDay(), loc, astroCache,
+				tAstro, astroDay, ephemeris);
+		getPrayerTimesByTopAstro(dc, tAstro, pt, slot);
+	}
+	
+	/* Second half of getPrayerTimesByDay, for a tAstro already holding the
+	 * topocentric values of the day at the current location */
+	void getPrayerTimesByTopAstro(DayCouple dc, Astro tAstro, DayPrayers pt,
+			int slot) {
+		CompiledMethod cm = compiled();
+		
+		getBasis(cm, tAstro, basis);
+		getPrayerTimesByBasis(cm, dc, tAstro, basis, pt, slot);
+	}
+	
+	/* The compiled form of the method, compiled again if the method has
+	 * been changed since */
+	private CompiledMethod compiled() {
+		if (compiled == null || !compiled.isCompiledFrom(method))
+			compiled = new CompiledMethod(method);
+		return compiled;
+	}
+	
+	/* Get Prayer Times formulae results for this day of year and this
+	 * location, in the order fajr, shurooq, thuhr, assr, maghrib and ishaa.
+	 * The results are NOT the actual prayer times */
+	void getBasis(CompiledMethod cm, Astro tAstro, double[] basis) {
+		double lat = loc.getDegreeLat();
+		double sinLat = loc.getSinLat(), cosLat = loc.getCosLat();
+		double dec = Utils.DEG_TO_RAD(tAstro.getDec()[1]);
+		
+		basis[0] = getFajIshBySin(sinLat, cosLat, dec, cm.sinFajrAng);
+		basis[1] = getShoMag(loc, tAstro, PrayerTime.SHUROOQ);
+		basis[2] = getThuhr(loc.getDegreeLong(), tAstro);
+		basis[3] = getAssr(lat, sinLat, cosLat, dec, cm.mathhab);
+		basis[4] = getShoMag(loc, tAstro, PrayerTime.MAGHRIB);
+		basis[5] = getFajIshBySin(sinLat, cosLat, dec, cm.sinIshaaAng);
+	}
+	
+	/* Apply the method to the formulae results of a day. The basis is not
+	 * modified, so it can be applied again with another method. The slot
+	 * is SLOT_FAJR for the six prayers, or SLOT_IMSAAK or SLOT_NEXTFAJR to
+	 * only fill pt.fajr(). */
+	void getPrayerTimesByBasis(CompiledMethod cm, DayCouple dc, Astro tAstro,
+			double[] basis, DayPrayers pt, int slot) {
+		int i, invalid;
+		double th, sh, mg, fj, is, ar;
+		double lat, lon, dec;
+		
+		lat = loc.getDegreeLat();
+		lon = loc.getDegreeLong();
+		invalid = 0;
+		
+		dec = Utils.DEG_TO_RAD(tAstro.getDec()[1]);
+		
+		fj = basis[0];
+		sh = basis[1];
+		th = basis[2];
+		ar = basis[3];
+		mg = basis[4];
+		is = basis[5];
+		
+		/* Calculate all prayer times as Base-10 numbers in Normal circumstances */
+		/* Fajr */
+		if (fj == 99) {
+			tempPrayer[0] = 99;
+			invalid = 1;
+		} else {
+			tempPrayer[0] = th - fj;
+		}
+		
+		if (sh == 99) {
+			invalid = 1;
+		}
+		
+		tempPrayer[1] = sh;
+		tempPrayer[2] = th;
+		tempPrayer[3] = th + ar;
+		tempPrayer[4] = mg;
+		
+		if (mg == 99) {
+			invalid = 1;
+		}
+		
+		/* Ishaa */
+		if (is == 99) {
+			tempPrayer[5] = 99;
+			invalid = 1;
+		} else {
+			tempPrayer[5] = th + is;
+		}
+		
+		/* Calculate all prayer times as Base-10 numbers in Extreme Latitudes (if
+		 * needed) */
+		
+		/* Reset status of extreme switches */
+		pt.setAllExtreme(false);
+		
+		if (cm.extreme != CompiledMethod.EX_NONE
+				&& !(cm.extremeIfInvalid && invalid == 0)) {
+			double exdec;
+			double exTh = 99, exFj = 99, exIs = 99, exAr = 99, exSh = 99, exMg = 99;
+			
+			double portion = 0;
+			double nGoodDay = 0;
+			
+			switch (cm.extreme) {
+			/* Nearest Latitude (Method.nearestLat) */
+			case CompiledMethod.EX_LAT_ALL:
+			case CompiledMethod.EX_LAT_ALWAYS:
+			case CompiledMethod.EX_LAT_INVALID:
+				
+				/* xxxthamer: we cannot compute this when interval is set because
+				 * angle==0 . Only the if-invalid methods would work */
+				loc.copyTo(exLoc);
+				exLoc.setDegreeLat(cm.nearestLat);
+				exFj = getFajIshBySin(exLoc.getSinLat(), exLoc.getCosLat(), dec,
+						cm.sinFajrAng);
+				exIs = getFajIshBySin(exLoc.getSinLat(), exLoc.getCosLat(), dec,
+						cm.sinIshaaAng);
+				exAr = getAssr(cm.nearestLat, exLoc.getSinLat(),
+						exLoc.getCosLat(), dec, cm.mathhab);
+				exSh = getShoMag(exLoc, tAstro, PrayerTime.SHUROOQ);
+				exMg = getShoMag(exLoc, tAstro, PrayerTime.MAGHRIB);
+				
+				if (cm.extreme == CompiledMethod.EX_LAT_ALL) {
+					tempPrayer[0] = th - exFj;
+					tempPrayer[1] = exSh;
+					tempPrayer[3] = th + exAr;
+					tempPrayer[4] = exMg;
+					tempPrayer[5] = th + exIs;
+					pt.setAllExtreme(true);
+				} else if (cm.extreme == CompiledMethod.EX_LAT_ALWAYS) {
+					tempPrayer[0] = th - exFj;
+					tempPrayer[5] = th + exIs;
+					pt.fajr().setExtreme(true);
+					pt.ishaa().setExtreme(true);
+				} else {
+					if (tempPrayer[0] == 99) {
+						tempPrayer[0] = th - exFj;
+						pt.fajr().setExtreme(true);
+					}
+					if (tempPrayer[5] == 99) {
+						tempPrayer[5] = th + exIs;
+						pt.ishaa().setExtreme(true);
+					}
+				}
+				break;
+				
+			case CompiledMethod.EX_GOOD_ALL:
+			case CompiledMethod.EX_GOOD_INVALID:
+				/* Nearest Good Day. The current day is its own nearest good
+				 * day when both fajr and ishaa are valid, otherwise the index
+				 * gives the closest one, the previous day winning a tie. */
+				if (fj != 99 && is != 99) {
+					exFj = fj;
+					exIs = is;
+					exTh = th;
+					exSh = sh;
+					exMg = mg;
+					exAr = ar;
+				} else {
+					nGoodDay = findGoodDay(cm, dc);
+					if (!Double.isNaN(nGoodDay)) {
+						AstroLib.getAstroValuesByDay(nGoodDay, loc, exAstro,
+								exTopAstro, astroDay, ephemeris);
+						exdec = Utils.DEG_TO_RAD(exTopAstro.getDec()[1]);
+						exFj = getFajIshBySin(loc.getSinLat(), loc.getCosLat(),
+								exdec, cm.sinFajrAng);
+						exIs = getFajIshBySin(loc.getSinLat(), loc.getCosLat(),
+								exdec, cm.sinIshaaAng);
+						exTh = getThuhr(lon, exTopAstro);
+						exSh = getShoMag(loc, exTopAstro, PrayerTime.SHUROOQ);
+						exMg = getShoMag(loc, exTopAstro, PrayerTime.MAGHRIB);
+						exAr = getAssr(lat, loc.getSinLat(), loc.getCosLat(),
+								exdec, cm.mathhab);
+					} else {
+						/* No good day within a year. Only the fajr value of the
+						 * last day looked at is known, as with a day by day
+						 * search. */
+						AstroLib.getAstroValuesByDay(dc.getJulianDay()
+								+ dc.getLastDay(), loc, exAstro, exTopAstro,
+								astroDay, ephemeris);
+						exdec = Utils.DEG_TO_RAD(exTopAstro.getDec()[1]);
+						exFj = getFajIshBySin(loc.getSinLat(), loc.getCosLat(),
+								exdec, cm.sinFajrAng);
+					}
+				}
+				
+				if (cm.extreme == CompiledMethod.EX_GOOD_ALL) {
+					tempPrayer[0] = exTh - exFj;
+					tempPrayer[1] = exSh;
+					tempPrayer[2] = exTh;
+					tempPrayer[3] = exTh + exAr;
+					tempPrayer[4] = exMg;
+					tempPrayer[5] = exTh + exIs;
+					pt.setAllExtreme(true);
+				} else {
+					if (tempPrayer[0] == 99) {
+						tempPrayer[0] = exTh - exFj;
+						pt.fajr().setExtreme(true);
+					}
+					if (tempPrayer[5] == 99) {
+						tempPrayer[5] = exTh + exIs;
+						pt.ishaa().setExtreme(true);
+					}
+				}
+				break;
+				
+			/* xxxthamer: For clarity, we may need to move the HALF_* methods
+			 * into their own separate case statement. */
+			case CompiledMethod.EX_SEVEN_NIGHT_ALWAYS:
+			case CompiledMethod.EX_SEVEN_NIGHT_INVALID:
+				portion = (24 - (tempPrayer[4] - tempPrayer[1])) * (1 / 7.0);
+				applyPortion(cm, pt, portion);
+				break;
+			case CompiledMethod.EX_SEVEN_DAY_ALWAYS:
+			case CompiledMethod.EX_SEVEN_DAY_INVALID:
+				portion = (tempPrayer[4] - tempPrayer[1]) * (1 / 7.0);
+				applyPortion(cm, pt, portion);
+				break;
+			case CompiledMethod.EX_HALF_ALWAYS:
+			case CompiledMethod.EX_HALF_INVALID:
+				portion = (24 - tempPrayer[4] - tempPrayer[1]) * (1 / 2.0);
+				applyPortion(cm, pt, portion);
+				break;
+				
+			case CompiledMethod.EX_MIN_ALWAYS:
+				/* Do nothing here because this is implemented through fajrInv and
+				 * ishaaInv structure members */
+				tempPrayer[0] = tempPrayer[1];
+				tempPrayer[5] = tempPrayer[4];
+				pt.fajr().setExtreme(true);
+				pt.ishaa().setExtreme(true);
+				break;
+			case CompiledMethod.EX_MIN_INVALID:
+				if (tempPrayer[0] == 99) {
+					tempPrayer[0] = tempPrayer[1] - cm.fajrInvWholeHours;
+					pt.fajr().setExtreme(true);
+				}
+				if (tempPrayer[5] == 99) {
+					tempPrayer[5] = tempPrayer[4] + cm.ishaaInvWholeHours;
+					pt.ishaa().setExtreme(true);
+				}
+				break;
+				
+			default:
+				/* Nearest Good Day: Different good days for Fajr and Ishaa (Not
+				 * implemented) */
+				break;
+			} /* end switch */
+		} /* end extreme */
+		
+		/* Apply intervals if set */
+		if (cm.intervals) {
+			if (cm.fajrInv != 0)
+				tempPrayer[0] = tempPrayer[1] - cm.fajrInvHours;
+			if (cm.ishaaInv != 0)
+				tempPrayer[5] = tempPrayer[4] + cm.ishaaInvHours;
+		}
+		
+		/* Final Step: Fill the Prayer array by doing decimal degree to
+		 * Prayer structure conversion*/
+		if (slot != CompiledMethod.SLOT_FAJR) {
+			base6hm(tempPrayer[0], dc.getDst(), cm, pt.fajr(), slot);
+		} else {
+			Prayer[] pArray = pt.getPrayers();
+			
+			for (i = 0; i < 6; i++) {
+				base6hm(tempPrayer[i], dc.getDst(), cm, pArray[i], i);
+			}
+		}
+		
+	}
+	
+	/* Fajr and ishaa of the SEVEN_* and HALF_* methods from a portion of
+	 * the night or of the day */
+	private void applyPortion(CompiledMethod cm, DayPrayers pt, double portion) {
+		boolean half = cm.extreme == CompiledMethod.EX_HALF_ALWAYS
+				|| cm.extreme == CompiledMethod.EX_HALF_INVALID;
+		
+		if (cm.extremeIfInvalid) {
+			if (tempPrayer[0] == 99) {
+				if (half)
+					tempPrayer[0] = portion - cm.fajrInvHours;
+				else
+					tempPrayer[0] = tempPrayer[1] - portion;
+				pt.fajr().setExtreme(true);
+			}
+			if (tempPrayer[5] == 99) {
+				if (half)
+					tempPrayer[5] = portion + cm.ishaaInvHours;
+				else
+					tempPrayer[5] = tempPrayer[4] + portion;
+				pt.ishaa().setExtreme(true);
+			}
+		} else { /* for the always methods */
+			if (half) {
+				tempPrayer[0] = portion - cm.fajrInvHours;
+				tempPrayer[5] = portion + cm.ishaaInvHours;
+			} else {
+				tempPrayer[0] = tempPrayer[1] - portion;
+				tempPrayer[5] = tempPrayer[4] + portion;
+			}
+			pt.fajr().setExtreme(true);
+			pt.ishaa().setExtreme(true);
+		}
+	}
+	
+	/* Nearest good day through the index matching the method, replacing
+	 * the least recently used one if none does */
+	private double findGoodDay(CompiledMethod cm, DayCouple dc) {
+		double jd = dc.getJulianDay();
+		
+		/* The other index either matches or is the one to rebuild */
+		if (!goodDays[lastGoodDays].covers(jd, loc, cm, ephemeris))
+			lastGoodDays = 1 - lastGoodDays;
+		
+		return goodDays[lastGoodDays].find(jd, dc.getLastDay(), loc, cm,
+				ephemeris);
+	}
+	
+	/* Output stage: converts a formula result in hours to seconds since the
+	 * local midnight of the day, with the offset, rounding and daylight
+	 * saving time of the slot. The result is not wrapped into the day: a
+	 * time before midnight is negative, one after the next midnight is
+	 * SECONDS_PER_DAY or more. */
+	static int toSeconds(double bs, int dst, CompiledMethod cm, int slot) {
+		int t, s;
+		
+		if (bs == 99)
+			return PrayerTable.INVALID;
+		
+		/* Add offsets */
+		if (cm.offset)
+			bs += cm.offsets[slot];
+		
+		/* A result a hair under a whole second counts as that second, so
+		 * times built from whole minutes (intervals, offsets) stay whole */
+		t = (int) Math.floor(bs * 3600 + SECOND_EPSILON);
+		
+		/* Drop the seconds, rounding up to the next minute from roundUpSec */
+		if (cm.dropSeconds[slot]) {
+			s = Math.floorMod(t, 60);
+			t += s >= cm.roundUpSec[slot] ? 60 - s : -s;
+		}
+		
+		return t + dst * 3600;
+	}
+	
+	/* Copies the output of the last day computed into a table row */
+	void setTableRow(PrayerTable table, int row, DayPrayers pt) {
+		Prayer[] prayers = pt.getPrayers();
+		
+		for (int i = 0; i < PrayerTable.PRAYERS; i++) {
+			int t = slotSeconds[i];
+			
+			if (t != PrayerTable.INVALID)
+				t = Math.floorMod(t, PrayerTable.SECONDS_PER_DAY);
+			table.set(row, i, t, prayers[i].isExtreme());
+		}
+	}
+	
+	private void setEpochSeconds(DayCouple dc, long[] epochs, int index) {
+		for (int i = 0; i < PrayerTable.PRAYERS; i++) {
+			int t = slotSeconds[i];
+			
+			epochs[index + i] = t == PrayerTable.INVALID ? PrayerTable.INVALID_EPOCH_SECOND
+					: dc.toEpochSecond(t);
+		}
+	}
+	
+	/* Runs the output stage for a slot, keeping the unwrapped seconds in
+	 * slotSeconds, and sets the prayer to the time of day */
+	void base6hm(double bs, int dst, CompiledMethod cm, Prayer pt, int slot) {
+		int t = toSeconds(bs, dst, cm, slot);
+		
+		slotSeconds[slot] = t;
+		if (t == PrayerTable.INVALID) {
+			pt.setHour(99);
+			pt.setMinute(99);
+			pt.setSecond(0);
+			return;
+		}
+		
+		t = Math.floorMod(t, PrayerTable.SECONDS_PER_DAY);
+		pt.setHour(t / 3600);
+		pt.setMinute(t / 60 % 60);
+		pt.setSecond(t % 60);
+	}
+	
+	/**
+	 * Generate imsaak time
+	 * @param date GregorianCalendar date
+	 * @return imsaak time
+	 */
+	public Prayer getImsaak(GregorianCalendar date) {
+		return getImsaak(new SimpleDate(date));
+	}
+	
+	/**
+	 * Generate imsaak time
+	 * @param date SimpleDate date
+	 * @return imsaak time
+	 */
+	public Prayer getImsaak(SimpleDate date) {
+		return getImsaakByDay(getDayInfo(date, loc, dayCouple));
+	}
+	
+	private Prayer getImsaakByDay(DayCouple dc) {
+		AstroLib.getAstroValuesByDay(dc.getJulianDay(), loc, astroCache,
+				tAstro, astroDay, ephemeris);
+		getBasis(compiled(), tAstro, basis);
+		getImsaakByBasis(dc, tAstro, basis, exPrayers);
+		
+		return exPrayers.fajr().copy();
+	}
+	
+	/* Imsaak from the formulae results of the day. Only the fajr result
+	 * depends on the imsaak settings, the others are shared with the day
+	 * prayers. The result goes to pt.fajr(). */
+	private void getImsaakByBasis(DayCouple dc, Astro tAstro, double[] basis,
+			DayPrayers pt) {
+		CompiledMethod cm = compiled();
+		double[] imsaakBasis = basis;
+		
+		/* Imsaak by angle needs the fajr result at fajr + imsaak angle,
+		 * imsaak by interval or offset is all in the compiled variant */
+		if (cm.imsaakByAngle) {
+			System.arraycopy(basis, 0, exBasis, 0, basis.length);
+			exBasis[0] = getFajIshBySin(loc.getSinLat(), loc.getCosLat(), Utils
+					.DEG_TO_RAD(tAstro.getDec()[1]), cm.imsaak.sinFajrAng);
+			imsaakBasis = exBasis;
+		}
+		
+		getPrayerTimesByBasis(cm.imsaak, dc, tAstro, imsaakBasis, pt,
+				CompiledMethod.SLOT_IMSAAK);
+		
+		/* xxxthamer: We probably need to check whether it's possible to compute
+		 * Imsaak normally for some extreme methods first */
+		/* In case of an extreme Fajr time calculation use intervals for Imsaak and
+		 * compute again */
+		if (pt.fajr().isExtreme())
+			getPrayerTimesByBasis(cm.imsaakExtreme, dc, tAstro, basis, pt,
+					CompiledMethod.SLOT_IMSAAK);
+	}
+	
+	/**
+	 * Generate next day imsaak time
+	 * @param date GregorianCalendar date
+	 * @return next day imsaak time
+	 */
+	public Prayer getNextDayImsaak(GregorianCalendar date) {
+		return getNextDayImsaak(new SimpleDate(date));
+	}
+	
+	/**
+	 * Generate next day imsaak time
+	 * @param date SimpleDate date
+	 * @return next day imsaak time
+	 */
+	public Prayer getNextDayImsaak(SimpleDate date) {
+		getDayInfo(date, loc, dayCouple).nextDay();
+		
+		return getImsaakByDay(dayCouple);
+	}
+	
+	/**
+	 * Generate next day fajr time
+	 * @param date GregorianCalendar date
+	 * @return next day fajr time
+	 */
+	public Prayer getNextDayFajr(GregorianCalendar date) {
+		return getNextDayFajr(new SimpleDate(date));
+	}
+	
+	/**
+	 * Generate next day fajr time
+	 * @param date SimpleDate date
+	 * @return next day fajr time
+	 */
+	public Prayer getNextDayFajr(SimpleDate date) {
+		getDayInfo(date, loc, dayCouple).nextDay();
+		getPrayerTimesByDay(dayCouple, exPrayers, CompiledMethod.SLOT_NEXTFAJR);
+		return exPrayers.fajr().copy();
+	}
+	
+	/**
+	 * Generate imsaak, the prayer times and the next day fajr of a day
+	 * @param date GregorianCalendar date
+	 * @return a new FullDayPrayers object
+	 * @see #getFullDayPrayers(SimpleDate, FullDayPrayers)
+	 */
+	public FullDayPrayers getFullDayPrayers(final GregorianCalendar date) {
+		return getFullDayPrayers(new SimpleDate(date));
+	}
+	
+	/**
+	 * Generate imsaak, the prayer times and the next day fajr of a day
+	 * @param date SimpleDate date
+	 * @return a new FullDayPrayers object
+	 * @see #getFullDayPrayers(SimpleDate, FullDayPrayers)
+	 */
+	public FullDayPrayers getFullDayPrayers(final SimpleDate date) {
+		FullDayPrayers pt = new FullDayPrayers();
+		getFullDayPrayers(date, pt);
+		return pt;
+	}
+	
+	/**
+	 * Generate imsaak, the prayer times and the next day fajr of a day in a
+	 * single pass. The times are the same as the ones of getImsaak,
+	 * getPrayerTimes and getNextDayFajr, but the day is set up once, the
+	 * formulae results are shared between imsaak and the prayers, and the
+	 * next day only shifts the ephemeris window by one day.
+	 * @param date SimpleDate date
+	 * @param pt instance of a FullDayPrayers object
+	 */
+	public void getFullDayPrayers(final SimpleDate date, FullDayPrayers pt) {
+		getDayInfo(date, loc, dayCouple);
+		AstroLib.getAstroValuesByDay(dayCouple.getJulianDay(), loc, astroCache,
+				tAstro, astroDay, ephemeris);
+		getBasis(compiled(), tAstro, basis);
+		getPrayerTimesByBasis(compiled(), dayCouple, tAstro, basis, pt,
+				CompiledMethod.SLOT_FAJR);
+		
+		getImsaakByBasis(dayCouple, tAstro, basis, exPrayers);
+		pt.imsaak().copyFrom(exPrayers.fajr());
+		
+		dayCouple.nextDay();
+		getPrayerTimesByDay(dayCouple, exPrayers, CompiledMethod.SLOT_NEXTFAJR);
+		pt.nextFajr().copyFrom(exPrayers.fajr());
+	}
+	
+	static double getFajIsh(double Lat, double dec, double Ang) {
+		return getFajIshBySin(Lat, dec, Math.sin(Utils.DEG_TO_RAD(Ang)));
+	}
+	
+	/* getFajIsh with the sine of the angle already computed */
+	static double getFajIshBySin(double Lat, double dec, double sinAng) {
+		return getFajIshBySin(Math.sin(Utils.DEG_TO_RAD(Lat)), Math.cos(Utils
+				.DEG_TO_RAD(Lat)), dec, sinAng);
+	}
+	
+	/* getFajIsh with the sine and cosine of the latitude and the sine of
+	 * the angle already computed */
+	static double getFajIshBySin(double sinLat, double cosLat, double dec,
+			double sinAng) {
+		
+		double part1 = cosLat * Math.cos(dec);
+		double part2 = -sinAng
+		- sinLat * Math.sin(dec);
+		
+		double part3 = part2 / part1;
+		if (part3 <= Utils.INVALID_TRIGGER) {
+			return 99;
+		}
+		
+		return Utils.DEG_TO_10_BASE * Utils.RAD_TO_DEG(Math.acos(part3));
+		
+	}
+	
+	static double getShoMag(Location loc, Astro astro, PrayerTime type) {
+		double lhour, M, sidG, ra0 = astro.getRa()[0], ra2 = astro.getRa()[2];
+		double A, B, H, sunAlt, R, tH;
+		
+		double part1 = loc.getSinLat()
+		* Math.sin(Utils.DEG_TO_RAD(astro.getDec()[1]));
+		double part2 = SIN_CENTER_OF_SUN - part1;
+		double part3 = loc.getCosLat()
+		* Math.cos(Utils.DEG_TO_RAD(astro.getDec()[1]));
+		
+		double part4 = part2 / part3;
+		
+		if (part4 <= -1 || part4 >= 1)
+			return 99;
+		
+		lhour = AstroLib.limitAngle180((Utils.RAD_TO_DEG(Math.acos(part4))));
+		M = ((astro.getRa()[1] - loc.getDegreeLong() - astro.getSid()[1]) / 360.0);
+		
+		if (type == PrayerTime.SHUROOQ)
+			M = M - (lhour / 360.0);
+		if (type == PrayerTime.MAGHRIB)
+			M = M + (lhour / 360.0);
+		
+		M = AstroLib.limitAngle111(M);
+		
+		sidG = AstroLib.limitAngle(astro.getSid()[1] + 360.985647 * M);
+		
+		ra0 = astro.getRa()[0];
+		ra2 = astro.getRa()[2];
+		
+		if (astro.getRa()[1] > 350 && astro.getRa()[2] < 10)
+			ra2 += 360;
+		if (astro.getRa()[0] > 350 && astro.getRa()[1] < 10)
+			ra0 = 0;
+		
+		A = astro.getRa()[1]
+		                  + (M
+		                		  * ((astro.getRa()[1] - ra0) + (ra2 - astro.getRa()[1]) + ((ra2 - astro
+		                				  .getRa()[1]) - (astro.getRa()[1] - ra0))
+		                				  * M) / 2.0);
+		
+		B = astro.getDec()[1]
+		                   + (M
+		                		   * ((astro.getDec()[1] - astro.getDec()[0])
+		                				   + (astro.getDec()[2] - astro.getDec()[1]) + ((astro
+		                						   .getDec()[2] - astro.getDec()[1]) - (astro
+		                								   .getDec()[1] - astro.getDec()[0]))
+		                								   * M) / 2.0);
+		
+		H = AstroLib.limitAngle180between(sidG + loc.getDegreeLong() - A);
+		
+		tH = H - Utils.RAD_TO_DEG(astro.getDra()[1]);
+		
+		sunAlt = Utils.RAD_TO_DEG(Math.asin(loc.getSinLat()
+				* Math.sin(Utils.DEG_TO_RAD(B))
+				+ loc.getCosLat()
+				* Math.cos(Utils.DEG_TO_RAD(B))
+				* Math.cos(Utils.DEG_TO_RAD(tH))));
+		
+		sunAlt += AstroLib.getRefraction(loc, sunAlt);
+		
+		R = (M + ((sunAlt - Utils.CENTER_OF_SUN_ANGLE + (Utils.ALTITUDE_REFRACTION * loc
+				.getSqrtSeaLevel())) / (360.0
+						* Math.cos(Utils.DEG_TO_RAD(B))
+						* loc.getCosLat() * Math
+						.sin(Utils.DEG_TO_RAD(tH)))));
+		
+		return (R * 24.0);
+		
+	}
+	
+	static double getThuhr(double lon, Astro astro) {
+		
+		double M, sidG;
+		double ra0 = astro.getRa()[0], ra2 = astro.getRa()[2];
+		double A, H;
+		
+		M = ((astro.getRa()[1] - lon - astro.getSid()[1]) / 360.0);
+		M = AstroLib.limitAngle111(M);
+		sidG = astro.getSid()[1] + 360.985647 * M;
+		
+		if (astro.getRa()[1] > 350 && astro.getRa()[2] < 10)
+			ra2 += 360;
+		if (astro.getRa()[0] > 350 && astro.getRa()[1] < 10)
+			ra0 = 0;
+		
+		A = astro.getRa()[1]
+		                  + (M
+		                		  * ((astro.getRa()[1] - ra0) + (ra2 - astro.getRa()[1]) + ((ra2 - astro
+		                				  .getRa()[1]) - (astro.getRa()[1] - ra0))
+		                				  * M) / 2.0);
+		
+		H = AstroLib.limitAngle180between(sidG + lon - A);
+		
+		return 24.0 * (M - H / 360.0);
+	}
+	
+	static double getAssr(double Lat, double dec, Mathhab mathhab) {
+		return getAssr(Lat, dec, mathhab == Mathhab.SHAAFI ? 1 : 2);
+	}
+	
+	/* getAssr with the shadow ratio of the mathhab, 1 for Shaafi and 2 for
+	 * Hanafi */
+	static double getAssr(double Lat, double dec, int mathhabValue) {
+		return getAssr(Lat, Math.sin(Utils.DEG_TO_RAD(Lat)), Math.cos(Utils
+				.DEG_TO_RAD(Lat)), dec, mathhabValue);
+	}
+	
+	/* getAssr with the sine and cosine of the latitude already computed */
+	static double getAssr(double Lat, double sinLat, double cosLat,
+			double dec, int mathhabValue) {
+		double part1, part2, part3, part4, ndec;
+		double rlat = Utils.DEG_TO_RAD(Lat);
+		
+		/* Reverse if at or near the southern hemisphere - Modified by Imran, copied from libitl-0.7.0 */
+		ndec = dec;
+		if (Lat < 0.0) {
+			ndec = -dec;
+		}
+		part1 = mathhabValue + Math.tan(rlat - ndec);
+		if (part1 < 1.0) {
+			part1 = mathhabValue - Math.tan(rlat - ndec);
+		}
+		
+		part2 = (Utils.PI / 2.0) - Math.atan(part1);
+		/* Compute the hour angle - Modified by Imran, copied from libitl-0.7.0 */
+		part3 = Math.sin(part2) - (sinLat * Math.sin(ndec));
+		part4 = (part3 / (cosLat * Math.cos(ndec)));
+		
+		/*  if (part4 > 1) */
+		/*      return 99; */
+		
+		return Utils.DEG_TO_10_BASE * Utils.RAD_TO_DEG(Math.acos(part4));
+	}
+	
+	static DayCouple getDayInfo(SimpleDate date, double gmt) {
+		return new DayCouple(EpochDay.of(date), gmt, 0);
+	}
+	
+	static DayCouple getDayInfo(SimpleDate date, Location loc, DayCouple dc) {
+		dc.setDay(EpochDay.of(date), loc.getGmtDiff(), loc.getDst());
+		return dc;
+	}
+	
+	/* Obtaining the direction of the shortest distance towards Qibla by uMath.sing the
+	 * great circle formula */
+	
+	/**
+	 * generate qibla direction
+	 * @param loc location where to calculate
+	 * @return a Dms object containg qibla direction 
+	 */
+	static public Dms getNorthQibla(Location loc) {
+		/* xxxthamer: reduce Utils.DEG_TO_RAD usage */
+		double num, denom;
+		num = Math.sin(Utils.DEG_TO_RAD(loc.getDegreeLong())
+				- Utils.DEG_TO_RAD(Utils.KAABA_LONG));
+		denom = (Math.cos(Utils.DEG_TO_RAD(loc.getDegreeLat())) * Math
+				.tan(Utils.DEG_TO_RAD(Utils.KAABA_LAT)))
+				- (Math.sin(Utils.DEG_TO_RAD(loc.getDegreeLat())) * ((Math
+						.cos((Utils.DEG_TO_RAD(loc.getDegreeLong()) - Utils
+								.DEG_TO_RAD(Utils.KAABA_LONG))))));
+		return new Dms(Utils.RAD_TO_DEG(Math.atan2(num, denom)));
+		
+	}
+	
+	/**
+	 * generate qibla direction
+	 * @return a Dms object containing qibla direction for the current location
+	 */
+	public Dms getNorthQibla() {
+		return getNorthQibla(loc);
+	}
+	
+	/**
+	 *  Major version of Jitl
+	 * @return Jitl major version
+	 */
+	public static int getMajorVersion() {
+		return VERSION_MAJOR;
+	}
+	
+	/**
+	 *  Minor version of Jitl
+	 * @return Jitl minor version
+	 */
+	public static int getMinorVersion() {
+		return VERSION_MINOR;
+	}
+	
+}
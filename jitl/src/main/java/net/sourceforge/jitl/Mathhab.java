@@ -3,19 +3,24 @@ package net.sourceforge.jitl;
  * Mathhab is used for Assr prayer calculation. 
  */
 public class Mathhab {
-	private Mathhab(){
-		
+	private final String name;
+
+	private Mathhab(String name){
+		this.name = name;
 	}
 	
 	/**
 	 * Assr prayer shadow ratio: use Shaa'fi mathhab (default)
 	 */
-	public static final Mathhab SHAAFI = new Mathhab();
+	public static final Mathhab SHAAFI = new Mathhab("SHAAFI");
 	
 	/**
 	 * Assr prayer shadow ratio: use Hanafi mathhab
 	 */
-	public static final Mathhab HANAFI = new Mathhab();
+	public static final Mathhab HANAFI = new Mathhab("HANAFI");
 	
+	public String toString() {
+		return name;
+	}
 
 }
@@ -138,6 +138,41 @@ public class Method {
 				maghribOffset, ishaaOffset);
 	}
 	
+	/**
+	 * Compare all the settings of this method with another one
+	 * @param other Method to compare with
+	 * @return true if both methods give the same prayer times
+	 */
+	boolean sameSettings(Method other) {
+		return fajrAng == other.fajrAng && ishaaAng == other.ishaaAng
+				&& imsaakAng == other.imsaakAng && fajrInv == other.fajrInv
+				&& ishaaInv == other.ishaaInv && imsaakInv == other.imsaakInv
+				&& round == other.round && mathhab == other.mathhab
+				&& nearestLat == other.nearestLat
+				&& extremeLatitude == other.extremeLatitude
+				&& offset == other.offset && fajrOffset == other.fajrOffset
+				&& shurooqOffset == other.shurooqOffset
+				&& thuhrOffset == other.thuhrOffset
+				&& assrOffset == other.assrOffset
+				&& maghribOffset == other.maghribOffset
+				&& ishaaOffset == other.ishaaOffset;
+	}
+	
+	/**
+	 * Lists all the settings, so two methods giving different prayer times
+	 * never give the same string
+	 */
+	public String toString() {
+		return "fajrAng=" + fajrAng + " ishaaAng=" + ishaaAng
+				+ " imsaakAng=" + imsaakAng + " fajrInv=" + fajrInv
+				+ " ishaaInv=" + ishaaInv + " imsaakInv=" + imsaakInv
+				+ " round=" + round + " mathhab=" + mathhab
+				+ " nearestLat=" + nearestLat + " extreme=" + extremeLatitude
+				+ " offset=" + offset + " offsets=" + fajrOffset + ","
+				+ shurooqOffset + "," + thuhrOffset + "," + assrOffset + ","
+				+ maghribOffset + "," + ishaaOffset;
+	}
+	
 	public ExtremeLatitude getExtremeLatitude() {
 		return extremeLatitude;
 	}
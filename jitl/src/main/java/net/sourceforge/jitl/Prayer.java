@@ -33,6 +33,17 @@ public class Prayer {
 		return new Prayer(hour, minute, second, extreme);
 	}
 	
+	/**
+	 * Copy the time of another prayer into this one
+	 * @param orig Prayer to copy from
+	 */
+	void copyFrom(Prayer orig) {
+		this.hour = orig.hour;
+		this.minute = orig.minute;
+		this.second = orig.second;
+		this.extreme = orig.extreme;
+	}
+	
 	public int getHour() {
 		return hour;
 	}
@@ -0,0 +1,153 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Dms;
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.EphemerisCache;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Immutable and thread safe alternative to the Jitl class. The location and
+ * the method are copied when the calculator is built and are never exposed,
+ * so they cannot change afterwards.
+ * <p>
+ * A single instance can be shared by any number of threads, for example to
+ * generate the timetables of several years in parallel. Every thread gets its
+ * own Jitl working copy, and all of them share one ephemeris cache, so a day
+ * computed by one thread is not computed again by another. By default this
+ * is the process wide <code>EphemerisCache.shared()</code>.
+ * <p>
+ * As a PrayerEngine, a calculator is the thread safe form of the reference
+ * engine.
+ */
+public final class PrayerCalculator implements PrayerEngine {
+
+	private final Location loc;
+
+	private final Method method;
+
+	private final Ephemeris ephemeris;
+
+	private final ThreadLocal<Jitl> workers = new ThreadLocal<Jitl>() {
+		protected Jitl initialValue() {
+			Jitl itl = new Jitl(loc, method);
+			itl.setEphemeris(ephemeris);
+			return itl;
+		}
+	};
+
+	/**
+	 * Creates a calculator using the shared ephemeris cache
+	 * @param loc the location, copied
+	 * @param method the method used in the calculation, copied
+	 */
+	public PrayerCalculator(Location loc, Method method) {
+		this(loc, method, EphemerisCache.shared());
+	}
+
+	/**
+	 * Creates a calculator taking the astronomical values from the given
+	 * ephemeris
+	 * @param loc the location, copied
+	 * @param method the method used in the calculation, copied
+	 * @param ephemeris the ephemeris. It is called from several threads at
+	 *  the same time, so it must be thread safe
+	 */
+	public PrayerCalculator(Location loc, Method method, Ephemeris ephemeris) {
+		this.loc = loc.copy();
+		this.method = method.copy();
+		this.ephemeris = ephemeris;
+	}
+
+	/**
+	 * @return a copy of the location of this calculator
+	 */
+	public Location getLocation() {
+		return loc.copy();
+	}
+
+	/**
+	 * @return a copy of the method of this calculator
+	 */
+	public Method getMethod() {
+		return method.copy();
+	}
+
+	/**
+	 * Creates a calculator for another location sharing the ephemeris of
+	 * this one
+	 * @param loc the new location
+	 * @return a new calculator
+	 */
+	public PrayerCalculator withLocation(Location loc) {
+		return new PrayerCalculator(loc, method, ephemeris);
+	}
+
+	/**
+	 * Creates a calculator for another method sharing the ephemeris of this
+	 * one
+	 * @param method the new method
+	 * @return a new calculator
+	 */
+	public PrayerCalculator withMethod(Method method) {
+		return new PrayerCalculator(loc, method, ephemeris);
+	}
+
+	/**
+	 * @see Jitl#getPrayerTimes(SimpleDate)
+	 */
+	public DayPrayers getPrayerTimes(final SimpleDate date) {
+		return workers.get().getPrayerTimes(date);
+	}
+
+	/**
+	 * @see Jitl#getPrayerTimes(SimpleDate, DayPrayers)
+	 */
+	public void getPrayerTimes(final SimpleDate date, DayPrayers pt) {
+		workers.get().getPrayerTimes(date, pt);
+	}
+
+	/**
+	 * @see Jitl#getPrayerTimesRange(SimpleDate, int, DayPrayers[])
+	 */
+	public void getPrayerTimesRange(final SimpleDate start, int days,
+			DayPrayers[] buffer) {
+		workers.get().getPrayerTimesRange(start, days, buffer);
+	}
+
+	/**
+	 * @see Jitl#getFullDayPrayers(SimpleDate, FullDayPrayers)
+	 */
+	public void getFullDayPrayers(final SimpleDate date, FullDayPrayers pt) {
+		workers.get().getFullDayPrayers(date, pt);
+	}
+
+	/**
+	 * @see Jitl#getImsaak(SimpleDate)
+	 */
+	public Prayer getImsaak(SimpleDate date) {
+		return workers.get().getImsaak(date);
+	}
+
+	/**
+	 * @see Jitl#getNextDayImsaak(SimpleDate)
+	 */
+	public Prayer getNextDayImsaak(SimpleDate date) {
+		return workers.get().getNextDayImsaak(date);
+	}
+
+	/**
+	 * @see Jitl#getNextDayFajr(SimpleDate)
+	 */
+	public Prayer getNextDayFajr(SimpleDate date) {
+		return workers.get().getNextDayFajr(date);
+	}
+
+	/**
+	 * @see Jitl#getNorthQibla(Location)
+	 */
+	public Dms getNorthQibla() {
+		return Jitl.getNorthQibla(loc);
+	}
+
+}
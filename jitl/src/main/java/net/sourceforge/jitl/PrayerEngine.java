@@ -0,0 +1,45 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Anything giving the prayer times of a day for one location and method.
+ * Jitl is the reference implementation; an engine may trade precision for
+ * speed, or answer from times computed in advance, as long as it fills the
+ * same FullDayPrayers.
+ * <p>
+ * Code showing or scheduling prayer times should depend on this interface
+ * and get its engine from a Factory, so the engine can be swapped without
+ * touching it. The predefined factories are in {@link PrayerEngines}.
+ */
+public interface PrayerEngine {
+
+	/**
+	 * Generate imsaak, the prayer times and the next day fajr of a day
+	 * @param date the date of prayers
+	 * @param pt instance of a FullDayPrayers object
+	 * @see Jitl#getFullDayPrayers(SimpleDate, FullDayPrayers)
+	 */
+	void getFullDayPrayers(SimpleDate date, FullDayPrayers pt);
+
+	/**
+	 * Creates the engines of a kind
+	 */
+	interface Factory {
+
+		/**
+		 * @return short name of the engines, for reports
+		 */
+		String getName();
+
+		/**
+		 * Creates an engine. The location and the method must not change
+		 * while the engine is in use.
+		 * @param loc the location
+		 * @param method the method used in the calculation
+		 * @return a new engine
+		 */
+		PrayerEngine create(Location loc, Method method);
+	}
+}
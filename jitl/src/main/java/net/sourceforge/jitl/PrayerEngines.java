@@ -0,0 +1,67 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+import net.sourceforge.jitl.astro.TruncatedEphemeris;
+
+/**
+ * Predefined PrayerEngine factories
+ */
+public final class PrayerEngines {
+
+	/**
+	 * Jitl instances on the shared ephemeris cache, the reference engine
+	 */
+	public static final PrayerEngine.Factory REFERENCE = new PrayerEngine.Factory() {
+		public String getName() {
+			return "reference";
+		}
+
+		public PrayerEngine create(Location loc, Method method) {
+			return new Jitl(loc, method);
+		}
+	};
+
+	/**
+	 * Jitl instances on <code>TruncatedEphemeris.STANDARD</code>: within a
+	 * couple of seconds of the reference up to 65 degrees of latitude, for
+	 * about a third of the cost of a day not in the cache
+	 */
+	public static final PrayerEngine.Factory FAST = new PrayerEngine.Factory() {
+		public String getName() {
+			return "fast";
+		}
+
+		public PrayerEngine create(Location loc, Method method) {
+			Jitl itl = new Jitl(loc, method);
+			itl.setEphemeris(TruncatedEphemeris.STANDARD);
+			return itl;
+		}
+	};
+
+	private PrayerEngines() {
+	}
+
+	/**
+	 * Factory of TableEngine instances
+	 * @param source factory of the engines computing the tables
+	 * @param first first day of the tables
+	 * @param days number of days of the tables
+	 * @return a factory computing a table for each engine it creates
+	 */
+	public static PrayerEngine.Factory table(final PrayerEngine.Factory source,
+			final SimpleDate first, final int days) {
+		final SimpleDate start = first.copy();
+
+		return new PrayerEngine.Factory() {
+			public String getName() {
+				return "table";
+			}
+
+			public PrayerEngine create(Location loc, Method method) {
+				return new TableEngine(source.create(loc, method), start, days);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,290 @@
+package net.sourceforge.jitl;
+
+import java.util.Arrays;
+
+/**
+ * Compact table of prayer times. Each row holds the six times of a
+ * DayPrayers (fajr, shuruq, thuhr, assr, maghrib and ishaa) as seconds since
+ * local midnight, all of them stored in a single <code>int</code> array. The
+ * extreme switches are stored one bit per time in a <code>long</code> array.
+ * <p>
+ * A row is usually one day of a range or one location of a batch. A year of
+ * prayer times takes two arrays instead of more than two thousand objects.
+ * The table is filled by
+ * {@link Jitl#getPrayerTimesRange(net.sourceforge.jitl.astro.SimpleDate, int, PrayerTable, int)}
+ * and {@link BatchCalculator}, and a single row is read through the
+ * {@link Day} view without copying.
+ */
+public final class PrayerTable {
+
+	/**
+	 * Number of times in a row
+	 */
+	public static final int PRAYERS = 6;
+
+	/**
+	 * Column of the fajr time
+	 */
+	public static final int FAJR = 0;
+
+	/**
+	 * Column of the shuruq time
+	 */
+	public static final int SHURUQ = 1;
+
+	/**
+	 * Column of the thuhr time
+	 */
+	public static final int THUHR = 2;
+
+	/**
+	 * Column of the assr time
+	 */
+	public static final int ASSR = 3;
+
+	/**
+	 * Column of the maghrib time
+	 */
+	public static final int MAGHRIB = 4;
+
+	/**
+	 * Column of the ishaa time
+	 */
+	public static final int ISHAA = 5;
+
+	/**
+	 * Value of a time that could not be computed. DayPrayers reports these
+	 * times as 99:99.
+	 */
+	public static final int INVALID = Integer.MIN_VALUE;
+
+	/**
+	 * Epoch second of a time that could not be computed
+	 * @see Jitl#getEpochSecondsRange(net.sourceforge.jitl.astro.SimpleDate, int, java.time.ZoneId, long[])
+	 */
+	public static final long INVALID_EPOCH_SECOND = Long.MIN_VALUE;
+
+	static final int SECONDS_PER_DAY = 86400;
+
+	private final int rows;
+
+	private final int[] seconds;
+
+	private final long[] extremes;
+
+	/**
+	 * Creates a table with all times invalid and not extreme
+	 * @param rows number of rows
+	 */
+	public PrayerTable(int rows) {
+		if (rows < 0)
+			throw new IllegalArgumentException("Invalid row count: " + rows);
+		this.rows = rows;
+		this.seconds = new int[rows * PRAYERS];
+		this.extremes = new long[(rows * PRAYERS + 63) >>> 6];
+		Arrays.fill(seconds, INVALID);
+	}
+
+	/**
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * @param row the row
+	 * @param prayer the column, from FAJR to ISHAA
+	 * @return the time in seconds since local midnight, or INVALID
+	 */
+	public int getSecondsOfDay(int row, int prayer) {
+		return seconds[index(row, prayer)];
+	}
+
+	/**
+	 * @param row the row
+	 * @param prayer the column, from FAJR to ISHAA
+	 * @return true if the time was computed through extreme latitude methods
+	 */
+	public boolean isExtreme(int row, int prayer) {
+		int i = index(row, prayer);
+		return (extremes[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Set a time of the table
+	 * @param row the row
+	 * @param prayer the column, from FAJR to ISHAA
+	 * @param secondsOfDay seconds since local midnight, or INVALID
+	 * @param extreme extreme switch
+	 */
+	public void set(int row, int prayer, int secondsOfDay, boolean extreme) {
+		int i = index(row, prayer);
+		seconds[i] = secondsOfDay;
+		if (extreme)
+			extremes[i >>> 6] |= 1L << i;
+		else
+			extremes[i >>> 6] &= ~(1L << i);
+	}
+
+	/**
+	 * Copy the times of a DayPrayers into a row
+	 * @param row the row
+	 * @param pt the prayer times
+	 */
+	public void set(int row, DayPrayers pt) {
+		Prayer[] prayers = pt.getPrayers();
+
+		for (int i = 0; i < PRAYERS; i++) {
+			Prayer p = prayers[i];
+			/* A Prayer set by hand may be out of the day, bring it back */
+			set(row, i, p.getHour() == 99 ? INVALID : Math.floorMod(
+					p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond(),
+					SECONDS_PER_DAY), p.isExtreme());
+		}
+	}
+
+	/**
+	 * Copy a row into a DayPrayers
+	 * @param row the row
+	 * @param pt the DayPrayers to fill
+	 */
+	public void get(int row, DayPrayers pt) {
+		Prayer[] prayers = pt.getPrayers();
+
+		for (int i = 0; i < PRAYERS; i++) {
+			int s = getSecondsOfDay(row, i);
+			Prayer p = prayers[i];
+			if (s == INVALID) {
+				p.setHour(99);
+				p.setMinute(99);
+				p.setSecond(0);
+			} else {
+				p.setHour(s / 3600);
+				p.setMinute(s / 60 % 60);
+				p.setSecond(s % 60);
+			}
+			p.setExtreme(isExtreme(row, i));
+		}
+	}
+
+	/**
+	 * Creates a view of a row. The view reads the arrays of this table and
+	 * follows any later change.
+	 * @param row the row
+	 * @return a view of the row
+	 */
+	public Day day(int row) {
+		if (row < 0 || row >= rows)
+			throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+		return new Day(row);
+	}
+
+	private int index(int row, int prayer) {
+		if (prayer < 0 || prayer >= PRAYERS)
+			throw new IndexOutOfBoundsException("Invalid prayer: " + prayer);
+		if (row < 0 || row >= rows)
+			throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+		return row * PRAYERS + prayer;
+	}
+
+	/**
+	 * View of one row of a PrayerTable
+	 */
+	public final class Day {
+
+		private int row;
+
+		private Day(int row) {
+			this.row = row;
+		}
+
+		/**
+		 * @return the row this view reads
+		 */
+		public int getRow() {
+			return row;
+		}
+
+		/**
+		 * Move the view to another row, so one view can walk the whole table
+		 * @param row the new row
+		 * @return this view
+		 */
+		public Day moveTo(int row) {
+			if (row < 0 || row >= rows)
+				throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+			this.row = row;
+			return this;
+		}
+
+		/**
+		 * @see PrayerTable#getSecondsOfDay(int, int)
+		 */
+		public int getSecondsOfDay(int prayer) {
+			return PrayerTable.this.getSecondsOfDay(row, prayer);
+		}
+
+		/**
+		 * @see PrayerTable#isExtreme(int, int)
+		 */
+		public boolean isExtreme(int prayer) {
+			return PrayerTable.this.isExtreme(row, prayer);
+		}
+
+		/**
+		 * @param prayer the column, from FAJR to ISHAA
+		 * @return true if the time could be computed
+		 */
+		public boolean isValid(int prayer) {
+			return getSecondsOfDay(prayer) != INVALID;
+		}
+
+		/**
+		 * @param prayer the column, from FAJR to ISHAA
+		 * @return the hour of the time, 99 if invalid
+		 */
+		public int getHour(int prayer) {
+			int s = getSecondsOfDay(prayer);
+			return s == INVALID ? 99 : s / 3600;
+		}
+
+		/**
+		 * @param prayer the column, from FAJR to ISHAA
+		 * @return the minute of the time, 99 if invalid
+		 */
+		public int getMinute(int prayer) {
+			int s = getSecondsOfDay(prayer);
+			return s == INVALID ? 99 : s / 60 % 60;
+		}
+
+		/**
+		 * @param prayer the column, from FAJR to ISHAA
+		 * @return the second of the time
+		 */
+		public int getSecond(int prayer) {
+			int s = getSecondsOfDay(prayer);
+			return s == INVALID ? 0 : s % 60;
+		}
+
+		/**
+		 * Convert the time to a Prayer object, for code written against
+		 * DayPrayers
+		 * @param prayer the column, from FAJR to ISHAA
+		 * @return a new Prayer
+		 */
+		public Prayer toPrayer(int prayer) {
+			return new Prayer(getHour(prayer), getMinute(prayer),
+					getSecond(prayer), isExtreme(prayer));
+		}
+
+		public String toString() {
+			String ret = "";
+			for (int i = 0; i < PRAYERS; i++) {
+				ret += toPrayer(i).toString() + "\n";
+			}
+			return ret;
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * PrayerEngine answering from times computed in advance. The full days of a
+ * span are asked once to a source engine and kept as seconds of the day: the
+ * six prayers in a PrayerTable, imsaak and the next day fajr in two more
+ * columns. A day of the span is then a copy out of the arrays, with the same
+ * times as the source. Days outside of the span are passed to the source.
+ * <p>
+ * The span costs its length in source days up front, so the engine pays off
+ * when it is kept and asked again, a widget refreshing every minute for
+ * example. Days of the span can be read from several threads at the same
+ * time; the source is only called outside of it.
+ */
+public final class TableEngine implements PrayerEngine {
+
+	private final PrayerEngine source;
+
+	private final int firstDay;
+
+	private final PrayerTable prayers;
+
+	/* Imsaak and next day fajr of each day, seconds of the day or
+	 * PrayerTable.INVALID */
+	private final int[] edges;
+
+	private final boolean[] edgeExtremes;
+
+	/**
+	 * Computes the span of days
+	 * @param source the engine computing the days
+	 * @param first first day of the span
+	 * @param days number of days of the span
+	 */
+	public TableEngine(PrayerEngine source, SimpleDate first, int days) {
+		FullDayPrayers pt = new FullDayPrayers();
+		SimpleDate date = new SimpleDate(1, 1, 1970);
+
+		if (days < 0)
+			throw new IllegalArgumentException("Invalid day count: " + days);
+		this.source = source;
+		this.firstDay = EpochDay.of(first);
+		this.prayers = new PrayerTable(days);
+		this.edges = new int[2 * days];
+		this.edgeExtremes = new boolean[2 * days];
+
+		for (int row = 0; row < days; row++) {
+			EpochDay.toDate(firstDay + row, date);
+			source.getFullDayPrayers(date, pt);
+			prayers.set(row, pt);
+			setEdge(2 * row, pt.imsaak());
+			setEdge(2 * row + 1, pt.nextFajr());
+		}
+	}
+
+	/**
+	 * @return the first day of the span, in days since 1 January 1970
+	 */
+	public int getFirstEpochDay() {
+		return firstDay;
+	}
+
+	/**
+	 * @return the number of days of the span
+	 */
+	public int getDayCount() {
+		return prayers.getRowCount();
+	}
+
+	/**
+	 * @param date a date
+	 * @return true if the day is answered from the table
+	 */
+	public boolean contains(SimpleDate date) {
+		int row = EpochDay.of(date) - firstDay;
+		return row >= 0 && row < prayers.getRowCount();
+	}
+
+	public void getFullDayPrayers(SimpleDate date, FullDayPrayers pt) {
+		int row = EpochDay.of(date) - firstDay;
+
+		if (row < 0 || row >= prayers.getRowCount()) {
+			source.getFullDayPrayers(date, pt);
+			return;
+		}
+		prayers.get(row, pt);
+		getEdge(2 * row, pt.imsaak());
+		getEdge(2 * row + 1, pt.nextFajr());
+	}
+
+	private void setEdge(int i, Prayer p) {
+		edges[i] = p.getHour() == 99 ? PrayerTable.INVALID : Math.floorMod(
+				p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond(),
+				PrayerTable.SECONDS_PER_DAY);
+		edgeExtremes[i] = p.isExtreme();
+	}
+
+	private void getEdge(int i, Prayer p) {
+		int s = edges[i];
+
+		if (s == PrayerTable.INVALID) {
+			p.setHour(99);
+			p.setMinute(99);
+			p.setSecond(0);
+		} else {
+			p.setHour(s / 3600);
+			p.setMinute(s / 60 % 60);
+			p.setSecond(s % 60);
+		}
+		p.setExtreme(edgeExtremes[i]);
+	}
+
+}
@@ -0,0 +1,502 @@
+package net.sourceforge.jitl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+/**
+ * Compact binary timetable of several locations over a span of days, read
+ * through a memory mapped buffer. Finding a day is a multiplication, and
+ * only the pages of the days read are loaded, so a table of many years and
+ * locations is never parsed nor copied into objects.
+ * <p>
+ * The file is big endian. The header holds a magic number, the version, the
+ * record size, the offset of the records, the first epoch day, the number of
+ * days, the time zone, the name of the method, the parameters of the method
+ * and, for each location, its name, latitude, longitude, sea level, pressure
+ * and temperature. Strings are an unsigned short length followed by UTF-8
+ * bytes. The parameters of the method are the fajr, ishaa and imsaak angles
+ * and the nearest latitude as doubles, the fajr, ishaa and imsaak intervals
+ * as ints, the rounding, the mathhab, the extreme latitude method and the
+ * offset switch as bytes, then the six offsets as doubles.
+ * <p>
+ * The records follow, all the days of the first location, then all the days
+ * of the next one. A record is eight ints: the UTC offset of the day in
+ * seconds, the six times (fajr to ishaa) in seconds since the local midnight
+ * of the day, and the extreme switches, one bit per time. The times are not
+ * wrapped to the day, a late ishaa after midnight stays above 86400, so the
+ * epoch second of a time is exact. Times that could not be computed are
+ * <code>PrayerTable.INVALID</code>.
+ * <p>
+ * Files are produced by {@link #write}, straight from the zone aware range
+ * computation, a few weeks at a time. A TimetableFile is immutable and can
+ * be read by any number of threads.
+ */
+public final class TimetableFile {
+
+	/**
+	 * First int of the file, "JTTF"
+	 */
+	public static final int MAGIC = 0x4A545446;
+
+	/**
+	 * Version of the format
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * Number of ints of a record
+	 */
+	public static final int RECORD_INTS = 8;
+
+	private static final int RECORD_BYTES = RECORD_INTS * 4;
+
+	private static final int OFFSET = 0, TIMES = 1, EXTREMES = 7;
+
+	/* Days computed and written at a time */
+	private static final int CHUNK_DAYS = 64;
+
+	/* Bytes of the parameters of the method */
+	private static final int METHOD_BYTES = 4 * 8 + 3 * 4 + 4 + 6 * 8;
+
+	/* Codes of the rounding, mathhab and extreme latitude method in the file */
+	private static final Rounding[] ROUNDINGS = { Rounding.NONE,
+			Rounding.NORMAL, Rounding.SPECIAL, Rounding.AGRESSIVE };
+
+	private static final Mathhab[] MATHHABS = { Mathhab.SHAAFI,
+			Mathhab.HANAFI };
+
+	private static final ExtremeLatitude[] EXTREME_METHODS = {
+			ExtremeLatitude.NONE_EX, ExtremeLatitude.LAT_ALL,
+			ExtremeLatitude.LAT_ALWAYS, ExtremeLatitude.LAT_INVALID,
+			ExtremeLatitude.GOOD_ALL, ExtremeLatitude.GOOD_INVALID,
+			ExtremeLatitude.SEVEN_NIGHT_ALWAYS,
+			ExtremeLatitude.SEVEN_NIGHT_INVALID,
+			ExtremeLatitude.SEVEN_DAY_ALWAYS,
+			ExtremeLatitude.SEVEN_DAY_INVALID, ExtremeLatitude.HALF_ALWAYS,
+			ExtremeLatitude.HALF_INVALID, ExtremeLatitude.MIN_ALWAYS,
+			ExtremeLatitude.MIN_INVALID, ExtremeLatitude.GOOD_DIF };
+
+	private final ByteBuffer records;
+
+	private final int firstDay;
+
+	private final int days;
+
+	private final ZoneId zone;
+
+	private final String methodName;
+
+	private final Method method;
+
+	private final String[] names;
+
+	private final Location[] locations;
+
+	private TimetableFile(ByteBuffer records, int firstDay, int days,
+			ZoneId zone, String methodName, Method method, String[] names,
+			Location[] locations) {
+		this.records = records;
+		this.firstDay = firstDay;
+		this.days = days;
+		this.zone = zone;
+		this.methodName = methodName;
+		this.method = method;
+		this.names = names;
+		this.locations = locations;
+	}
+
+	/**
+	 * Computes and writes a timetable. The days of each location are
+	 * computed a few weeks at a time and written as they come, so the table
+	 * is never held in memory.
+	 * @param file the file to write
+	 * @param method the method used in the calculation
+	 * @param methodName name of the method written in the header
+	 * @param zone time zone of the locations, giving the GMT difference of
+	 *  each day
+	 * @param first first day of the table
+	 * @param days number of days
+	 * @param names names of the locations
+	 * @param locations the locations, their GMT difference and daylight
+	 *  saving time are not used
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path file, Method method, String methodName,
+			ZoneId zone, SimpleDate first, int days, String[] names,
+			Location[] locations) throws IOException {
+		int firstDay = EpochDay.of(first);
+		ZoneOffsets offsets = new ZoneOffsets(zone);
+		PrayerTable table = new PrayerTable(CHUNK_DAYS);
+		long[] epochs = new long[CHUNK_DAYS * PrayerTable.PRAYERS];
+		ByteBuffer chunk = ByteBuffer.allocate(CHUNK_DAYS * RECORD_BYTES);
+
+		if (days < 0 || names.length != locations.length)
+			throw new IllegalArgumentException(days + " days of "
+					+ locations.length + " locations named " + names.length);
+
+		try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(out, header(firstDay, days, zone, method, methodName,
+					names, locations));
+
+			for (Location loc : locations) {
+				Jitl itl = new Jitl(loc, method);
+
+				for (int d = 0; d < days; d += CHUNK_DAYS) {
+					int n = Math.min(CHUNK_DAYS, days - d);
+
+					itl.getPrayerTimesRange(firstDay + d, n, offsets, table,
+							epochs);
+					chunk.clear();
+					for (int i = 0; i < n; i++)
+						putRecord(chunk, firstDay + d + i,
+								offsets.getOffsetSeconds(firstDay + d + i),
+								table, epochs, i);
+					chunk.flip();
+					writeFully(out, chunk);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Maps a timetable file
+	 * @param file the file
+	 * @return the timetable
+	 * @throws IOException if the file cannot be read or is not a timetable
+	 */
+	public static TimetableFile open(Path file) throws IOException {
+		ByteBuffer map;
+
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (in.size() > Integer.MAX_VALUE)
+				throw new IOException(file + " is larger than 2 GB");
+			map = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+		}
+
+		try {
+			if (map.getInt() != MAGIC)
+				throw new IOException(file + " is not a timetable");
+			if (map.getShort() != VERSION || map.getShort() != RECORD_INTS)
+				throw new IOException(file + ": unsupported version");
+
+			int start = map.getInt();
+			int firstDay = map.getInt();
+			int days = map.getInt();
+			int count = map.getInt();
+			ZoneId zone = ZoneId.of(getString(map));
+			String methodName = getString(map);
+			Method method = getMethod(map);
+			String[] names = new String[count];
+			Location[] locations = new Location[count];
+
+			for (int i = 0; i < count; i++) {
+				names[i] = getString(map);
+				locations[i] = new Location(map.getDouble(), map.getDouble(), 0,
+						0);
+				locations[i].setSeaLevel(map.getDouble());
+				locations[i].setPressure(map.getDouble());
+				locations[i].setTemperature(map.getDouble());
+			}
+			if (days < 0 || map.capacity() - start < (long) count * days
+					* RECORD_BYTES)
+				throw new IOException(file + " is truncated");
+
+			map.position(start);
+			return new TimetableFile(map.slice(), firstDay, days, zone,
+					methodName, method, names, locations);
+		} catch (RuntimeException e) {
+			/* A short header, a bad zone or an unknown code */
+			throw new IOException(file + " is not a valid timetable", e);
+		}
+	}
+
+	/**
+	 * @return the first day of the table, in days since 1 January 1970
+	 */
+	public int getFirstEpochDay() {
+		return firstDay;
+	}
+
+	/**
+	 * @return the number of days of each location
+	 */
+	public int getDayCount() {
+		return days;
+	}
+
+	/**
+	 * @return the time zone of the table
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * @return the name of the method written in the header
+	 */
+	public String getMethodName() {
+		return methodName;
+	}
+
+	/**
+	 * @return a copy of the method the table was computed with
+	 */
+	public Method getMethod() {
+		return method.copy();
+	}
+
+	/**
+	 * @return the number of locations
+	 */
+	public int getLocationCount() {
+		return locations.length;
+	}
+
+	/**
+	 * @param location index of the location
+	 * @return the name of the location
+	 */
+	public String getLocationName(int location) {
+		return names[location];
+	}
+
+	/**
+	 * @param location index of the location
+	 * @return a copy of the location, without GMT difference
+	 */
+	public Location getLocation(int location) {
+		return locations[location].copy();
+	}
+
+	/**
+	 * @param epochDay days since 1 January 1970
+	 * @return true if the day is in the table
+	 */
+	public boolean contains(int epochDay) {
+		return epochDay >= firstDay && epochDay - firstDay < days;
+	}
+
+	/**
+	 * @param location index of the location
+	 * @param epochDay days since 1 January 1970
+	 * @return the UTC offset of the day, in seconds
+	 */
+	public int getOffsetSeconds(int location, int epochDay) {
+		return records.getInt(index(location, epochDay) + OFFSET * 4);
+	}
+
+	/**
+	 * @param location index of the location
+	 * @param epochDay days since 1 January 1970
+	 * @param prayer the time, from PrayerTable.FAJR to PrayerTable.ISHAA
+	 * @return the seconds since the local midnight of the day, not wrapped
+	 *  to the day, or PrayerTable.INVALID
+	 */
+	public int getSeconds(int location, int epochDay, int prayer) {
+		return records.getInt(index(location, epochDay)
+				+ (TIMES + column(prayer)) * 4);
+	}
+
+	/**
+	 * @param location index of the location
+	 * @param epochDay days since 1 January 1970
+	 * @param prayer the time, from PrayerTable.FAJR to PrayerTable.ISHAA
+	 * @return true if the time was computed through extreme latitude methods
+	 */
+	public boolean isExtreme(int location, int epochDay, int prayer) {
+		return (records.getInt(index(location, epochDay) + EXTREMES * 4)
+				& 1 << column(prayer)) != 0;
+	}
+
+	/**
+	 * @param location index of the location
+	 * @param epochDay days since 1 January 1970
+	 * @param prayer the time, from PrayerTable.FAJR to PrayerTable.ISHAA
+	 * @return the epoch second of the time, or
+	 *  PrayerTable.INVALID_EPOCH_SECOND
+	 */
+	public long getEpochSecond(int location, int epochDay, int prayer) {
+		int t = getSeconds(location, epochDay, prayer);
+
+		if (t == PrayerTable.INVALID)
+			return PrayerTable.INVALID_EPOCH_SECOND;
+		return epochDay * (long) PrayerTable.SECONDS_PER_DAY + t
+				- getOffsetSeconds(location, epochDay);
+	}
+
+	/**
+	 * Copy the times of a day into a DayPrayers, as times of day
+	 * @param location index of the location
+	 * @param epochDay days since 1 January 1970
+	 * @param pt the DayPrayers to fill
+	 */
+	public void get(int location, int epochDay, DayPrayers pt) {
+		Prayer[] prayers = pt.getPrayers();
+
+		for (int i = 0; i < PrayerTable.PRAYERS; i++) {
+			int t = getSeconds(location, epochDay, i);
+			Prayer p = prayers[i];
+
+			if (t == PrayerTable.INVALID) {
+				p.setHour(99);
+				p.setMinute(99);
+				p.setSecond(0);
+			} else {
+				t = Math.floorMod(t, PrayerTable.SECONDS_PER_DAY);
+				p.setHour(t / 3600);
+				p.setMinute(t / 60 % 60);
+				p.setSecond(t % 60);
+			}
+			p.setExtreme(isExtreme(location, epochDay, i));
+		}
+	}
+
+	private int index(int location, int epochDay) {
+		if (location < 0 || location >= locations.length)
+			throw new IndexOutOfBoundsException("Location " + location + " of "
+					+ locations.length);
+		if (!contains(epochDay))
+			throw new IndexOutOfBoundsException("Day " + epochDay
+					+ " out of " + firstDay + " + " + days);
+		return (location * days + epochDay - firstDay) * RECORD_BYTES;
+	}
+
+	private static int column(int prayer) {
+		if (prayer < 0 || prayer >= PrayerTable.PRAYERS)
+			throw new IndexOutOfBoundsException("Invalid prayer: " + prayer);
+		return prayer;
+	}
+
+	private static void putRecord(ByteBuffer out, int epochDay, int offset,
+			PrayerTable table, long[] epochs, int row) {
+		int extremes = 0;
+
+		out.putInt(offset);
+		for (int i = 0; i < PrayerTable.PRAYERS; i++) {
+			long e = epochs[row * PrayerTable.PRAYERS + i];
+
+			out.putInt(e == PrayerTable.INVALID_EPOCH_SECOND ? PrayerTable.INVALID
+					: (int) (e - epochDay * (long) PrayerTable.SECONDS_PER_DAY
+							+ offset));
+			if (table.isExtreme(row, i))
+				extremes |= 1 << i;
+		}
+		out.putInt(extremes);
+	}
+
+	private static ByteBuffer header(int firstDay, int days, ZoneId zone,
+			Method method, String methodName, String[] names,
+			Location[] locations) {
+		byte[][] strings = new byte[names.length + 2][];
+		int size = 24 + METHOD_BYTES + locations.length * 40;
+		ByteBuffer header;
+
+		strings[0] = zone.getId().getBytes(StandardCharsets.UTF_8);
+		strings[1] = methodName.getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < names.length; i++)
+			strings[i + 2] = names[i].getBytes(StandardCharsets.UTF_8);
+		for (byte[] s : strings) {
+			if (s.length > 0xffff)
+				throw new IllegalArgumentException("Name too long");
+			size += 2 + s.length;
+		}
+		/* The records start on a record boundary */
+		size = (size + RECORD_BYTES - 1) / RECORD_BYTES * RECORD_BYTES;
+
+		header = ByteBuffer.allocate(size);
+		header.putInt(MAGIC);
+		header.putShort((short) VERSION);
+		header.putShort((short) RECORD_INTS);
+		header.putInt(size);
+		header.putInt(firstDay);
+		header.putInt(days);
+		header.putInt(locations.length);
+		putString(header, strings[0]);
+		putString(header, strings[1]);
+		putMethod(header, method);
+		for (int i = 0; i < locations.length; i++) {
+			putString(header, strings[i + 2]);
+			header.putDouble(locations[i].getDegreeLat());
+			header.putDouble(locations[i].getDegreeLong());
+			header.putDouble(locations[i].getSeaLevel());
+			header.putDouble(locations[i].getPressure());
+			header.putDouble(locations[i].getTemperature());
+		}
+		header.rewind();
+		return header;
+	}
+
+	private static void putMethod(ByteBuffer out, Method method) {
+		out.putDouble(method.getFajrAng());
+		out.putDouble(method.getIshaaAng());
+		out.putDouble(method.getImsaakAng());
+		out.putDouble(method.getNearestLat());
+		out.putInt(method.getFajrInv());
+		out.putInt(method.getIshaaInv());
+		out.putInt(method.getImsaakInv());
+		out.put(code(ROUNDINGS, method.getRound()));
+		out.put(code(MATHHABS, method.getMathhab()));
+		out.put(code(EXTREME_METHODS, method.getExtremeLatitude()));
+		out.put((byte) (method.getOffset() ? 1 : 0));
+		out.putDouble(method.getFajrOffset());
+		out.putDouble(method.getShurooqOffset());
+		out.putDouble(method.getThuhrOffset());
+		out.putDouble(method.getAssrOffset());
+		out.putDouble(method.getMaghribOffset());
+		out.putDouble(method.getIshaaOffset());
+	}
+
+	private static Method getMethod(ByteBuffer in) {
+		double fajrAng = in.getDouble();
+		double ishaaAng = in.getDouble();
+		double imsaakAng = in.getDouble();
+		double nearestLat = in.getDouble();
+		int fajrInv = in.getInt();
+		int ishaaInv = in.getInt();
+		int imsaakInv = in.getInt();
+		Rounding round = ROUNDINGS[in.get()];
+		Mathhab mathhab = MATHHABS[in.get()];
+		ExtremeLatitude extreme = EXTREME_METHODS[in.get()];
+		boolean offset = in.get() != 0;
+
+		return new Method(fajrAng, ishaaAng, imsaakAng, fajrInv, ishaaInv,
+				imsaakInv, round, mathhab, nearestLat, extreme, offset,
+				in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(),
+				in.getDouble(), in.getDouble());
+	}
+
+	private static byte code(Object[] values, Object value) {
+		for (int i = 0; i < values.length; i++)
+			if (values[i] == value)
+				return (byte) i;
+		throw new IllegalArgumentException("Unknown method setting: " + value);
+	}
+
+	private static void putString(ByteBuffer out, byte[] s) {
+		out.putShort((short) s.length);
+		out.put(s);
+	}
+
+	private static String getString(ByteBuffer in) {
+		byte[] s = new byte[in.getShort() & 0xffff];
+		in.get(s);
+		return new String(s, StandardCharsets.UTF_8);
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining())
+			out.write(buffer);
+	}
+
+}
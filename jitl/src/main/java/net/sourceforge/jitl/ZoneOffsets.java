@@ -0,0 +1,133 @@
+package net.sourceforge.jitl;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+import net.sourceforge.jitl.astro.EpochDay;
+
+/**
+ * UTC offsets of a time zone, day by day. The transitions of the zone rules
+ * are read once for a span of days, at least a year, and kept in two arrays,
+ * so resolving the offset of a day is a binary search in a handful of
+ * instants: no calendar, no ZonedDateTime and no allocation.
+ * <p>
+ * The offset of a day is the one in effect at its local noon. The daylight
+ * saving time transitions happen at night, so it is the offset of all the
+ * prayers of the day but, at most, a fajr before a transition made after
+ * midnight.
+ * <p>
+ * An instance is not thread safe, the span grows as days outside of it are
+ * asked.
+ */
+public final class ZoneOffsets {
+
+	private static final int SECONDS_PER_DAY = 86400;
+
+	/* Shortest span read from the rules */
+	private static final int MIN_SPAN = 366;
+
+	private final ZoneId zone;
+
+	private final ZoneRules rules;
+
+	/* Epoch seconds of the transitions within the span, and the offset in
+	 * seconds from each one; offsets[0] is the offset before the first */
+	private long[] transitions;
+
+	private int[] offsets;
+
+	private int firstDay = 1, lastDay = 0;
+
+	/**
+	 * Creates the offsets of a zone
+	 * @param zone the time zone
+	 */
+	public ZoneOffsets(ZoneId zone) {
+		this.zone = zone;
+		this.rules = zone.getRules();
+	}
+
+	/**
+	 * @return the time zone
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * Reads the transitions of a span of days, so the following calls for
+	 * these days do not go back to the zone rules
+	 * @param firstEpochDay first day of the span
+	 * @param lastEpochDay last day of the span
+	 */
+	public void cover(int firstEpochDay, int lastEpochDay) {
+		long from, to;
+		ZoneOffsetTransition t;
+		int n;
+
+		if (firstEpochDay >= firstDay && lastEpochDay <= lastDay)
+			return;
+		lastEpochDay = Math.max(lastEpochDay, firstEpochDay + MIN_SPAN);
+
+		/* One day of margin on both sides for the offsets of local noon */
+		from = (firstEpochDay - 1) * (long) SECONDS_PER_DAY;
+		to = (lastEpochDay + 2) * (long) SECONDS_PER_DAY;
+
+		n = 0;
+		for (t = rules.nextTransition(Instant.ofEpochSecond(from)); t != null
+				&& t.toEpochSecond() < to; t = rules.nextTransition(t.getInstant()))
+			n++;
+
+		transitions = new long[n];
+		offsets = new int[n + 1];
+		offsets[0] = rules.getOffset(Instant.ofEpochSecond(from))
+				.getTotalSeconds();
+		n = 0;
+		for (t = rules.nextTransition(Instant.ofEpochSecond(from)); t != null
+				&& t.toEpochSecond() < to; t = rules.nextTransition(t.getInstant())) {
+			transitions[n] = t.toEpochSecond();
+			offsets[++n] = t.getOffsetAfter().getTotalSeconds();
+		}
+
+		firstDay = firstEpochDay;
+		lastDay = lastEpochDay;
+	}
+
+	/**
+	 * @param epochDay days since 1 January 1970
+	 * @return the offset at the local noon of the day, in seconds
+	 * @see EpochDay
+	 */
+	public int getOffsetSeconds(int epochDay) {
+		long noon = epochDay * (long) SECONDS_PER_DAY + SECONDS_PER_DAY / 2;
+		int offset;
+
+		if (epochDay < firstDay || epochDay > lastDay)
+			cover(epochDay, epochDay);
+
+		/* Noon UTC gives the offset up to the transitions between the two
+		 * noons, the second search settles it */
+		offset = offsetAt(noon);
+		return offsetAt(noon - offset);
+	}
+
+	/**
+	 * @param epochDay days since 1 January 1970
+	 * @return the offset at the local noon of the day, in hours, as the
+	 *  GMT difference of a Location
+	 */
+	public double getGmtDiff(int epochDay) {
+		return getOffsetSeconds(epochDay) / 3600.0;
+	}
+
+	private int offsetAt(long epochSecond) {
+		int i = Arrays.binarySearch(transitions, epochSecond);
+
+		/* A transition instant already has the new offset */
+		return offsets[i >= 0 ? i + 1 : -i - 1];
+	}
+
+}
@@ -167,11 +167,81 @@ public class AstroLib {
 		{ 0, -1, 1, 2, 2 }, { 2, -1, -1, 2, 2 }, { 0, 0, 3, 2, 2 },
 		{ 2, -1, 0, 2, 2 } };
 	
+	/* Coefficients of the arguments of the nutation series, in degrees: the
+	 * constant, linear and square terms of Julian centuries, and the divisor
+	 * of the cube. In order the mean elongation of the moon, the mean
+	 * anomalies of the sun and of the moon, the argument of latitude of the
+	 * moon and the longitude of its ascending node. */
+	private static final double NUTATION_ARGUMENTS[][] = {
+		{ 297.85036, 445267.111480, -0.0019142, 189474.0 },
+		{ 357.52772, 35999.050340, -0.0001603, -300000.0 },
+		{ 134.96298, 477198.867398, 0.0086972, 56250.0 },
+		{ 93.27191, 483202.017538, -0.0036825, 327270.0 },
+		{ 125.04452, -1934.136261, 0.0020708, 450000.0 } };
+	
+	/* The tables above flattened into contiguous arrays for the series
+	 * loops. The terms of series s are SERIES_START[s] to
+	 * SERIES_START[s + 1] - 1, the series being L0 to L5, B0, B1 and R0 to
+	 * R4 in that order. */
+	static final int SERIES_L0 = 0, SERIES_B0 = 6, SERIES_R0 = 8;
+	
+	static final int SERIES_START[];
+	
+	static final double SERIES_AMPLITUDE[], SERIES_PHASE[], SERIES_FREQUENCY[];
+	
+	/* Nutation terms: the coefficients of PE, and the rows of SINCOEFF one
+	 * after the other, the multiples of the five arguments of term i
+	 * starting at 5 * i */
+	static final int NUTATION_TERMS = PE.length;
+	
+	static final double NUTATION_PSI[] = new double[NUTATION_TERMS];
+	
+	static final double NUTATION_PSI_T[] = new double[NUTATION_TERMS];
+	
+	static final double NUTATION_EPS[] = new double[NUTATION_TERMS];
+	
+	static final double NUTATION_EPS_T[] = new double[NUTATION_TERMS];
+	
+	static final int NUTATION_MULTIPLES[] = new int[5 * NUTATION_TERMS];
+	
+	static {
+		double series[][][] = { L0, L1, L2, L3, L4, L5, B0, B1, R0, R1, R2,
+				R3, { R4 } };
+		int i, j, n;
+		
+		SERIES_START = new int[series.length + 1];
+		n = 0;
+		for (i = 0; i < series.length; i++) {
+			SERIES_START[i] = n;
+			n += series[i].length;
+		}
+		SERIES_START[series.length] = n;
+		
+		SERIES_AMPLITUDE = new double[n];
+		SERIES_PHASE = new double[n];
+		SERIES_FREQUENCY = new double[n];
+		for (i = 0; i < series.length; i++) {
+			for (j = 0; j < series[i].length; j++) {
+				SERIES_AMPLITUDE[SERIES_START[i] + j] = series[i][j][0];
+				SERIES_PHASE[SERIES_START[i] + j] = series[i][j][1];
+				SERIES_FREQUENCY[SERIES_START[i] + j] = series[i][j][2];
+			}
+		}
+		
+		for (i = 0; i < NUTATION_TERMS; i++) {
+			NUTATION_PSI[i] = PE[i][0];
+			NUTATION_PSI_T[i] = PE[i][1];
+			NUTATION_EPS[i] = PE[i][2];
+			NUTATION_EPS_T[i] = PE[i][3];
+			for (j = 0; j < 5; j++)
+				NUTATION_MULTIPLES[5 * i + j] = SINCOEFF[i][j];
+		}
+	}
+	
 	public static double getRefraction(final Location loc, double sunAlt) {
 		double part1, part2;
 		
-		part1 = (loc.getPressure() / 1010.0)
-		* (283 / (273 + loc.getTemperature()));
+		part1 = loc.getRefractionFactor();
 		part2 = 1.02 / (Utils.RAD_TO_DEG(Math.tan(Utils.DEG_TO_RAD(sunAlt + (10.3/(sunAlt + 5.11))))) + 0.0019279);
 		return (part1 * part2) / 60.0;
 	}
@@ -205,7 +275,33 @@ public class AstroLib {
 	
 	public static void getAstroValuesByDay(double julianDay,
 			final Location loc, Astro astro, Astro topAstro) {
-		AstroDay ad = new AstroDay();
+		getAstroValuesByDay(julianDay, loc, astro, topAstro, new AstroDay(),
+				Ephemeris.VSOP87);
+	}
+	
+	/**
+	 * Same as <code>getAstroValuesByDay(double, Location, Astro, Astro)</code>
+	 * but uses the given AstroDay as scratch space instead of allocating one,
+	 * and takes the days missing from the cache from the given ephemeris.
+	 */
+	public static void getAstroValuesByDay(double julianDay,
+			final Location loc, Astro astro, Astro topAstro, AstroDay ad,
+			Ephemeris ephemeris) {
+		getAstroWindowByDay(julianDay, astro, ad, ephemeris);
+		computeTopAstro(loc, astro, topAstro);
+	}
+	
+	/**
+	 * Moves the geocentric three day window held by <code>astro</code> to
+	 * the given Julian day (the day before, the day and the day after). The
+	 * window is shifted rather than recomputed when it is one day away.
+	 * @param julianDay the Julian day
+	 * @param astro the window to update
+	 * @param ad scratch space
+	 * @param ephemeris where the missing days are taken from
+	 */
+	public static void getAstroWindowByDay(double julianDay, Astro astro,
+			AstroDay ad, Ephemeris ephemeris) {
 		
 		if (astro.getJd() == julianDay - 1) {
 			astro.getRa()[0] = astro.getRa()[1];
@@ -219,7 +315,7 @@ public class AstroLib {
 			astro.getDra()[1] = astro.getDra()[2];
 			astro.getRsum()[0] = astro.getRsum()[1];
 			astro.getRsum()[1] = astro.getRsum()[2];
-			computeAstroDay(julianDay + 1, ad);
+			ephemeris.computeAstroDay(julianDay + 1, ad);
 			astro.getRa()[2] = ad.getRa();
 			astro.getDec()[2] = ad.getDec();
 			astro.getSid()[2] = ad.getSidtime();
@@ -237,26 +333,26 @@ public class AstroLib {
 			astro.getDra()[1] = astro.getDra()[0];
 			astro.getRsum()[2] = astro.getRsum()[1];
 			astro.getRsum()[1] = astro.getRsum()[0];
-			computeAstroDay(julianDay - 1, ad);
+			ephemeris.computeAstroDay(julianDay - 1, ad);
 			astro.getRa()[0] = ad.getRa();
 			astro.getDec()[0] = ad.getDec();
 			astro.getSid()[0] = ad.getSidtime();
 			astro.getDra()[0] = ad.getDra();
 			astro.getRsum()[0] = ad.getRsum();
 		} else if (astro.getJd() != julianDay) {
-			computeAstroDay(julianDay - 1, ad);
+			ephemeris.computeAstroDay(julianDay - 1, ad);
 			astro.getRa()[0] = ad.getRa();
 			astro.getDec()[0] = ad.getDec();
 			astro.getSid()[0] = ad.getSidtime();
 			astro.getDra()[0] = ad.getDra();
 			astro.getRsum()[0] = ad.getRsum();
-			computeAstroDay(julianDay, ad);
+			ephemeris.computeAstroDay(julianDay, ad);
 			astro.getRa()[1] = ad.getRa();
 			astro.getDec()[1] = ad.getDec();
 			astro.getSid()[1] = ad.getSidtime();
 			astro.getDra()[1] = ad.getDra();
 			astro.getRsum()[1] = ad.getRsum();
-			computeAstroDay(julianDay + 1, ad);
+			ephemeris.computeAstroDay(julianDay + 1, ad);
 			astro.getRa()[2] = ad.getRa();
 			astro.getDec()[2] = ad.getDec();
 			astro.getSid()[2] = ad.getSidtime();
@@ -265,30 +361,18 @@ public class AstroLib {
 		}
 		
 		astro.setJd(julianDay);
-		computeTopAstro(loc, astro, topAstro);
-		
 	}
 	
 	public static void computeAstroDay(double JD, AstroDay astroday) {
 		
-		int i = 0;
-		double R, Gg, G;
+		int i, m;
+		double R;
 		
-		double tL, L;
-		double tB, B;
+		double tL, tB;
 		
 		double X0, X1, X2, X3, X4;
 		
-		double U, E0, E, lamda, V0, V;
-		
-		double RAn, RAd, RA, DEC;
-		
-		double B0sum = 0, B1sum = 0;
-		double R0sum = 0, R1sum = 0, R2sum = 0, R3sum = 0, R4sum = 0;
-		double L0sum = 0, L1sum = 0, L2sum = 0, L3sum = 0, L4sum = 0, L5sum = 0;
-		
-		double xsum = 0, psi = 0, epsilon = 0;
-		double deltaPsi, deltaEps;
+		double xsum, psi = 0, epsilon = 0;
 		
 		double JC = (JD - 2451545) / 36525.0;
 		double JM = JC / 10.0;
@@ -297,73 +381,86 @@ public class AstroLib {
 		double JM4 = Math.pow(JM, 4);
 		double JM5 = Math.pow(JM, 5);
 		
-		for (i = 0; i < 64; i++)
-			L0sum += L0[i][0] * Math.cos(L0[i][1] + L0[i][2] * JM);
-		for (i = 0; i < 34; i++)
-			L1sum += L1[i][0] * Math.cos(L1[i][1] + L1[i][2] * JM);
-		for (i = 0; i < 20; i++)
-			L2sum += L2[i][0] * Math.cos(L2[i][1] + L2[i][2] * JM);
-		for (i = 0; i < 7; i++)
-			L3sum += L3[i][0] * Math.cos(L3[i][1] + L3[i][2] * JM);
-		for (i = 0; i < 3; i++)
-			L4sum += L4[i][0] * Math.cos(L4[i][1] + L4[i][2] * JM);
-		L5sum = L5[0][0] * Math.cos(L5[0][1] + L5[0][2] * JM);
-		
-		tL = (L0sum + (L1sum * JM) + (L2sum * JM2) + (L3sum * JM3)
-				+ (L4sum * JM4) + (L5sum * JM5))
+		tL = (seriesSum(SERIES_L0, JM) + (seriesSum(SERIES_L0 + 1, JM) * JM)
+				+ (seriesSum(SERIES_L0 + 2, JM) * JM2)
+				+ (seriesSum(SERIES_L0 + 3, JM) * JM3)
+				+ (seriesSum(SERIES_L0 + 4, JM) * JM4) + (seriesSum(
+				SERIES_L0 + 5, JM) * JM5))
 				/ Math.pow(10, 8);
 		
-		L = limitAngle(Utils.RAD_TO_DEG(tL));
+		tB = (seriesSum(SERIES_B0, JM) + (seriesSum(SERIES_B0 + 1, JM) * JM))
+				/ Math.pow(10, 8);
 		
-		for (i = 0; i < 5; i++)
-			B0sum += B0[i][0] * Math.cos(B0[i][1] + B0[i][2] * JM);
-		for (i = 0; i < 2; i++)
-			B1sum += B1[i][0] * Math.cos(B1[i][1] + B1[i][2] * JM);
+		R = (seriesSum(SERIES_R0, JM) + (seriesSum(SERIES_R0 + 1, JM) * JM)
+				+ (seriesSum(SERIES_R0 + 2, JM) * JM2)
+				+ (seriesSum(SERIES_R0 + 3, JM) * JM3) + (seriesSum(
+				SERIES_R0 + 4, JM) * JM4))
+				/ Math.pow(10, 8);
 		
-		tB = (B0sum + (B1sum * JM)) / Math.pow(10, 8);
-		B = Utils.RAD_TO_DEG(tB);
+		X0 = nutationArgument(0, JC);
+		X1 = nutationArgument(1, JC);
+		X2 = nutationArgument(2, JC);
+		X3 = nutationArgument(3, JC);
+		X4 = nutationArgument(4, JC);
+		
+		for (i = 0, m = 0; i < NUTATION_TERMS; i++, m += 5) {
+			xsum = X0 * NUTATION_MULTIPLES[m] + X1 * NUTATION_MULTIPLES[m + 1]
+			+ X2 * NUTATION_MULTIPLES[m + 2] + X3 * NUTATION_MULTIPLES[m + 3]
+			+ X4 * NUTATION_MULTIPLES[m + 4];
+			psi += (NUTATION_PSI[i] + JC * NUTATION_PSI_T[i])
+			* Math.sin(Utils.DEG_TO_RAD(xsum));
+			epsilon += (NUTATION_EPS[i] + JC * NUTATION_EPS_T[i])
+			* Math.cos(Utils.DEG_TO_RAD(xsum));
+		}
+		
+		completeAstroDay(JD, tL, tB, R, psi, epsilon, astroday);
+	}
+	
+	/**
+	 * @param series index of the series, SERIES_L0 to SERIES_R0 + 4
+	 * @param JM Julian millennia since J2000.0
+	 * @return sum of the terms of the series
+	 */
+	static double seriesSum(int series, double JM) {
+		double sum = 0;
+		int end = SERIES_START[series + 1];
+		
+		for (int k = SERIES_START[series]; k < end; k++)
+			sum += SERIES_AMPLITUDE[k] * Math.cos(SERIES_PHASE[k]
+					+ SERIES_FREQUENCY[k] * JM);
+		return sum;
+	}
+	
+	/**
+	 * Second half of computeAstroDay, from the sums of the series to the
+	 * apparent position of the sun
+	 * @param JD the Julian day
+	 * @param tL heliocentric longitude of the earth in radians
+	 * @param tB heliocentric latitude of the earth in radians
+	 * @param R distance to the sun in astronomical units
+	 * @param psi sum of the nutation in longitude terms
+	 * @param epsilon sum of the nutation in obliquity terms
+	 * @param astroday instance receiving the values
+	 */
+	static void completeAstroDay(double JD, double tL, double tB, double R,
+			double psi, double epsilon, AstroDay astroday) {
+		double Gg, G, L, B;
 		
-		for (i = 0; i < 40; i++)
-			R0sum += R0[i][0] * Math.cos(R0[i][1] + R0[i][2] * JM);
-		for (i = 0; i < 10; i++)
-			R1sum += R1[i][0] * Math.cos(R1[i][1] + R1[i][2] * JM);
-		for (i = 0; i < 6; i++)
-			R2sum += R2[i][0] * Math.cos(R2[i][1] + R2[i][2] * JM);
-		for (i = 0; i < 2; i++)
-			R3sum += R3[i][0] * Math.cos(R3[i][1] + R3[i][2] * JM);
+		double U, E0, E, lamda, V0, V;
 		
-		R4sum = R4[0] * Math.cos(R4[1] + R4[2] * JM);
+		double RAn, RAd, RA, DEC;
 		
-		R = (R0sum + (R1sum * JM) + (R2sum * JM2) + (R3sum * JM3) + (R4sum * JM4))
-		/ Math.pow(10, 8);
+		double deltaPsi, deltaEps;
+		
+		double JC = (JD - 2451545) / 36525.0;
+		double JM = JC / 10.0;
+		
+		L = limitAngle(Utils.RAD_TO_DEG(tL));
+		B = Utils.RAD_TO_DEG(tB);
 		
 		G = limitAngle((L + 180));
 		Gg = -B;
 		
-		X0 = 297.85036 + (445267.111480 * JC) - (0.0019142 * Math.pow(JC, 2))
-		+ Math.pow(JC, 3) / 189474.0;
-		X1 = 357.52772 + (35999.050340 * JC) - (0.0001603 * Math.pow(JC, 2))
-		- Math.pow(JC, 3) / 300000.0;
-		X2 = 134.96298 + (477198.867398 * JC) + (0.0086972 * Math.pow(JC, 2))
-		+ Math.pow(JC, 3) / 56250.0;
-		X3 = 93.27191 + (483202.017538 * JC) - (0.0036825 * Math.pow(JC, 2))
-		+ Math.pow(JC, 3) / 327270.0;
-		X4 = 125.04452 - (1934.136261 * JC) + (0.0020708 * Math.pow(JC, 2))
-		+ Math.pow(JC, 3) / 450000.0;
-		
-		for (i = 0; i < 63; i++) {
-			xsum += X0 * SINCOEFF[i][0];
-			xsum += X1 * SINCOEFF[i][1];
-			xsum += X2 * SINCOEFF[i][2];
-			xsum += X3 * SINCOEFF[i][3];
-			xsum += X4 * SINCOEFF[i][4];
-			psi += (PE[i][0] + JC * PE[i][1])
-			* Math.sin(Utils.DEG_TO_RAD(xsum));
-			epsilon += (PE[i][2] + JC * PE[i][3])
-			* Math.cos(Utils.DEG_TO_RAD(xsum));
-			xsum = 0;
-		}
-		
 		deltaPsi = psi / 36000000.0;
 		deltaEps = epsilon / 36000000.0;
 		
@@ -400,11 +497,26 @@ public class AstroLib {
 		
 	}
 	
+	/**
+	 * @param k index of the argument, 0 to 4
+	 * @param JC Julian centuries since J2000.0
+	 * @return argument k of the nutation series in degrees
+	 */
+	static double nutationArgument(int k, double JC) {
+		double[] c = NUTATION_ARGUMENTS[k];
+		return c[0] + (c[1] * JC) + (c[2] * Math.pow(JC, 2))
+		+ Math.pow(JC, 3) / c[3];
+	}
+	
 	public static void computeTopAstro(final Location loc, final Astro astro,
 			Astro topAstro) {
 		int i;
 		double lHour, SP;
-		double tU, tCos, tSin, tRA0, tRA, tDEC;
+		double tCos, tSin, tRA0, tRA, tDEC;
+		
+		/* Depend on the location only, see Location */
+		tCos = loc.getTopCos();
+		tSin = loc.getTopSin();
 		
 		for (i = 0; i < 3; i++) {
 			lHour = limitAngle(astro.getSid()[i] + loc.getDegreeLong()
@@ -412,15 +524,6 @@ public class AstroLib {
 			
 			SP = 8.794 / (3600 * astro.getRsum()[i]);
 			
-			tU = Math.atan(0.99664719 * Math.tan(Utils.DEG_TO_RAD(loc
-					.getDegreeLat())));
-			
-			tCos = Math.cos(tU) + ((loc.getSeaLevel()) / 6378140.0)
-			* Math.cos(Utils.DEG_TO_RAD(loc.getDegreeLat()));
-			
-			tSin = 0.99664719 * Math.sin(tU) + (loc.getSeaLevel() / 6378140.0)
-			* Math.sin(Utils.DEG_TO_RAD(loc.getDegreeLat()));
-			
 			tRA0 = (((-tCos) * Math.sin(Utils.DEG_TO_RAD(SP)) * Math.sin(Utils
 					.DEG_TO_RAD(lHour))) / (Math.cos(astro.getDec()[i]) - tCos
 							* Math.sin(Utils.DEG_TO_RAD(SP))
@@ -445,6 +548,7 @@ public class AstroLib {
 		
 	}
 	
+
 	public static double limitAngle(double L) {
 		double F;
 		L /= 360.0;
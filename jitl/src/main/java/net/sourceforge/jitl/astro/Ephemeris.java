@@ -0,0 +1,27 @@
+package net.sourceforge.jitl.astro;
+
+/**
+ * Source of the geocentric solar values (right ascension, declination,
+ * sidereal time and distance) of a given Julian day. The values only depend
+ * on the Julian day, never on the location.
+ */
+public interface Ephemeris {
+	
+	/**
+	 * Full evaluation of the VSOP87 and nutation series on every call
+	 * @see AstroLib#computeAstroDay(double, AstroDay)
+	 */
+	Ephemeris VSOP87 = new Ephemeris() {
+		public void computeAstroDay(double julianDay, AstroDay astroday) {
+			AstroLib.computeAstroDay(julianDay, astroday);
+		}
+	};
+	
+	/**
+	 * Fill an AstroDay with the values of a Julian day
+	 * @param julianDay the Julian day
+	 * @param astroday instance receiving the values
+	 */
+	void computeAstroDay(double julianDay, AstroDay astroday);
+	
+}
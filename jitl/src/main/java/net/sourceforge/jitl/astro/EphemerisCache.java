@@ -0,0 +1,160 @@
+package net.sourceforge.jitl.astro;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of ephemeris values keyed by Julian day. It is a direct
+ * mapped table: each Julian day hashes to a single slot, and a new day
+ * replaces whatever the slot held before.
+ * <p>
+ * Slots hold immutable entries that are copied into the caller's AstroDay,
+ * so one cache can be used by any number of threads at the same time. Two
+ * threads missing the same day may both compute it; the result is the same.
+ * <p>
+ * Since the values do not depend on the location, the process wide cache
+ * returned by <code>shared()</code> is used by default by every Jitl
+ * instance: computing many cities for the same date and GMT difference only
+ * evaluates the series once per day.
+ */
+public class EphemerisCache implements Ephemeris {
+	
+	/**
+	 * Number of days kept by the shared cache, a bit more than 11 years for
+	 * a single GMT difference
+	 */
+	public static final int SHARED_CAPACITY = 4096;
+	
+	private static final EphemerisCache SHARED = new EphemerisCache(
+			Ephemeris.VSOP87, SHARED_CAPACITY);
+	
+	private final Ephemeris source;
+	
+	private final AtomicReferenceArray<Entry> slots;
+	
+	private final int shift;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @return the process wide cache in front of the VSOP87 series
+	 */
+	public static EphemerisCache shared() {
+		return SHARED;
+	}
+	
+	/**
+	 * Creates a cache in front of an ephemeris
+	 * @param source the ephemeris computing the missing days
+	 * @param capacity number of days kept, rounded up to a power of two
+	 */
+	public EphemerisCache(Ephemeris source, int capacity) {
+		int bits = 1;
+		
+		if (capacity < 1 || capacity > (1 << 30))
+			throw new IllegalArgumentException("Invalid cache capacity: "
+					+ capacity);
+		while ((1 << bits) < capacity)
+			bits++;
+		
+		this.source = source;
+		this.slots = new AtomicReferenceArray<Entry>(1 << bits);
+		this.shift = 64 - bits;
+	}
+	
+	public void computeAstroDay(double julianDay, AstroDay astroday) {
+		long key = Double.doubleToLongBits(julianDay);
+		/* Fibonacci hashing spreads consecutive days over the whole table */
+		int index = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+		Entry entry = slots.get(index);
+		
+		if (entry != null && entry.key == key) {
+			astroday.setRa(entry.ra);
+			astroday.setDec(entry.dec);
+			astroday.setSidtime(entry.sidtime);
+			astroday.setDra(entry.dra);
+			astroday.setRsum(entry.rsum);
+			hits.increment();
+			return;
+		}
+		
+		misses.increment();
+		if (entry != null)
+			evictions.increment();
+		source.computeAstroDay(julianDay, astroday);
+		slots.set(index, new Entry(key, astroday));
+	}
+	
+	/**
+	 * Empties the cache. The counters are left untouched.
+	 */
+	public void clear() {
+		for (int i = 0; i < slots.length(); i++)
+			slots.set(i, null);
+	}
+	
+	/**
+	 * @return number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return number of lookups that had to call the source ephemeris
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return number of cached days replaced by another day
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * Resets the hit, miss and eviction counters
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+	
+	/**
+	 * @return the number of days the cache can hold
+	 */
+	public int getCapacity() {
+		return slots.length();
+	}
+	
+	private static final class Entry {
+		final long key;
+		
+		final double ra;
+		
+		final double dec;
+		
+		final double sidtime;
+		
+		final double dra;
+		
+		final double rsum;
+		
+		Entry(long key, AstroDay astroday) {
+			this.key = key;
+			this.ra = astroday.getRa();
+			this.dec = astroday.getDec();
+			this.sidtime = astroday.getSidtime();
+			this.dra = astroday.getDra();
+			this.rsum = astroday.getRsum();
+		}
+	}
+	
+}
@@ -0,0 +1,135 @@
+package net.sourceforge.jitl.astro;
+
+/**
+ * Date arithmetic on epoch days, the number of days since 1 January 1970 in
+ * the proleptic Gregorian calendar. An epoch day is a plain int, so a range
+ * of dates is walked with <code>+1</code> and the month and year boundaries
+ * come for free. The conversions from and to the civil date are the integer
+ * algorithms of Howard Hinnant (days_from_civil and civil_from_days): no
+ * table, no loop, no floating point and no calendar object.
+ */
+public final class EpochDay {
+
+	/* Julian day of 1 January 1970 at midnight UT */
+	private static final int JULIAN_DAY_EPOCH = 2440588;
+
+	/* Days from 1 March of the year 0 to 1 January 1970 */
+	private static final int DAYS_0000_TO_1970 = 719468;
+
+	private static final int DAYS_PER_ERA = 146097;
+
+	private EpochDay() {
+	}
+
+	/**
+	 * Epoch day of a civil date. The day and month are not checked, a day
+	 * past the end of its month continues into the next one.
+	 * @param year the year, 0 being 1 BC
+	 * @param month the month, 1 to 12
+	 * @param day the day of the month
+	 * @return days since 1 January 1970
+	 */
+	public static int of(int year, int month, int day) {
+		int era, yoe, doy, doe;
+
+		/* Years start on 1 March so the leap day is the last one */
+		if (month <= 2)
+			year--;
+		era = (year >= 0 ? year : year - 399) / 400;
+		yoe = year - era * 400;
+		doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+
+		return era * DAYS_PER_ERA + doe - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * Epoch day of a SimpleDate
+	 * @param date the date
+	 * @return days since 1 January 1970
+	 */
+	public static int of(SimpleDate date) {
+		return of(date.year, date.month, date.day);
+	}
+
+	/**
+	 * Fills a SimpleDate with the civil date of an epoch day
+	 * @param epochDay days since 1 January 1970
+	 * @param date the date to set
+	 */
+	public static void toDate(int epochDay, SimpleDate date) {
+		int z = epochDay + DAYS_0000_TO_1970;
+		int era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+		int doe = z - era * DAYS_PER_ERA;
+		int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		int mp = (5 * doy + 2) / 153;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+
+		date.day = doy - (153 * mp + 2) / 5 + 1;
+		date.month = month;
+		date.year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+	}
+
+	/**
+	 * @param epochDay days since 1 January 1970
+	 * @return the year of the epoch day
+	 */
+	public static int yearOf(int epochDay) {
+		int z = epochDay + DAYS_0000_TO_1970;
+		int era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+		int doe = z - era * DAYS_PER_ERA;
+		int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+
+		/* January and February (doy 306 and over) belong to the next year */
+		return yoe + era * 400 + (doy >= 306 ? 1 : 0);
+	}
+
+	/**
+	 * @param epochDay days since 1 January 1970
+	 * @return the day of the year, 1 for 1 January
+	 */
+	public static int dayOfYear(int epochDay) {
+		return epochDay - of(yearOf(epochDay), 1, 1) + 1;
+	}
+
+	/**
+	 * @param year the year
+	 * @return true if the year has a 29 February
+	 */
+	public static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	/**
+	 * @param year the year
+	 * @return 365 or 366
+	 */
+	public static int lengthOfYear(int year) {
+		return isLeapYear(year) ? 366 : 365;
+	}
+
+	/**
+	 * Julian day of the local midnight starting an epoch day. This is the
+	 * value of <code>AstroLib.getJulianDay</code> for the same date, bit for
+	 * bit, from 15 October 1582 on; before that date AstroLib switches to the
+	 * Julian calendar.
+	 * @param epochDay days since 1 January 1970
+	 * @param gmt difference with GMT in hours
+	 * @return the Julian day
+	 */
+	public static double toJulianDay(int epochDay, double gmt) {
+		return (epochDay + JULIAN_DAY_EPOCH) + (-gmt) / 24.0 - 0.5;
+	}
+
+	/**
+	 * Epoch day holding a Julian day, in UT
+	 * @param julianDay the Julian day
+	 * @return days since 1 January 1970
+	 */
+	public static int fromJulianDay(double julianDay) {
+		return (int) Math.floor(julianDay + 0.5) - JULIAN_DAY_EPOCH;
+	}
+
+}
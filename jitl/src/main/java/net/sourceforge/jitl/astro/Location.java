@@ -22,6 +22,14 @@ public class Location {
 	
 	private double temperature;
 	
+	/* Constants derived from the fields above, kept up to date by the
+	 * setters: sine and cosine of the latitude, geocentric position of the
+	 * observer used by the topocentric correction, square root of the
+	 * height and the pressure and temperature factor of the refraction */
+	private double sinLat, cosLat, topCos, topSin, sqrtSeaLevel;
+	
+	private double refractionFactor;
+	
 	/**
 	 * default constructor of location object. Latitude, Longitude,
 	 * GMT difference and day saving time flag are required. Other
@@ -44,6 +52,9 @@ public class Location {
 		this.seaLevel = DEFAULT_SEA_LEVEL;
 		this.pressure = DEFAULT_PRESSURE;
 		this.temperature = DEFAULT_TEMPERATURE;
+		
+		prepareGeodetic();
+		prepareRefraction();
 	}
 	
 	private Location() {
@@ -51,16 +62,30 @@ public class Location {
 	}
 	
 	public Location copy() {
-		Location loc = new Location();
+		return copyTo(new Location());
+	}
+	
+	/**
+	 * copies all fields of this location into an existing instance
+	 * @param loc the location to overwrite
+	 * @return <code>loc</code>
+	 */
+	public Location copyTo(Location loc) {
+		// copy all fields, the derived ones included
+		loc.degreeLat = degreeLat;
+		loc.degreeLong = degreeLong;
+		loc.gmtDiff = gmtDiff;
+		loc.dst = dst;
+		loc.seaLevel = seaLevel;
+		loc.pressure = pressure;
+		loc.temperature = temperature;
 		
-		// copy all fields
-		loc.setDegreeLat(degreeLat);
-		loc.setDegreeLong(degreeLong);
-		loc.setGmtDiff(gmtDiff);
-		loc.setDst(dst);
-		loc.setSeaLevel(seaLevel);
-		loc.setPressure(pressure);
-		loc.setTemperature(temperature);
+		loc.sinLat = sinLat;
+		loc.cosLat = cosLat;
+		loc.topCos = topCos;
+		loc.topSin = topSin;
+		loc.sqrtSeaLevel = sqrtSeaLevel;
+		loc.refractionFactor = refractionFactor;
 		
 		return loc;
 	}
@@ -75,6 +100,7 @@ public class Location {
 	 */
 	public void setDegreeLat(double degreeLat) {
 		this.degreeLat = degreeLat;
+		prepareGeodetic();
 	}
 	
 	public double getDegreeLong() {
@@ -126,6 +152,7 @@ public class Location {
 	*/
 	public void setPressure(double pressure) {
 		this.pressure = pressure;
+		prepareRefraction();
 	}
 	
 	
@@ -139,6 +166,7 @@ public class Location {
 	 */
 	public void setSeaLevel(double seaLevel) {
 		this.seaLevel = seaLevel;
+		prepareGeodetic();
 	}
 	
 	public double getTemperature() {
@@ -152,5 +180,55 @@ public class Location {
 	 */
 	public void setTemperature(double temperature) {
 		this.temperature = temperature;
+		prepareRefraction();
+	}
+	
+	/**
+	 * @return sine of the latitude
+	 */
+	public double getSinLat() {
+		return sinLat;
+	}
+	
+	/**
+	 * @return cosine of the latitude
+	 */
+	public double getCosLat() {
+		return cosLat;
+	}
+	
+	/**
+	 * @return square root of the height above sea level
+	 */
+	public double getSqrtSeaLevel() {
+		return sqrtSeaLevel;
+	}
+	
+	/* Observer terms of the topocentric correction, in Earth radii */
+	double getTopCos() {
+		return topCos;
+	}
+	
+	double getTopSin() {
+		return topSin;
+	}
+	
+	/* Pressure and temperature factor of the refraction */
+	double getRefractionFactor() {
+		return refractionFactor;
+	}
+	
+	private void prepareGeodetic() {
+		double tU = Math.atan(0.99664719 * Math.tan(Utils.DEG_TO_RAD(degreeLat)));
+		
+		sinLat = Math.sin(Utils.DEG_TO_RAD(degreeLat));
+		cosLat = Math.cos(Utils.DEG_TO_RAD(degreeLat));
+		topCos = Math.cos(tU) + (seaLevel / 6378140.0) * cosLat;
+		topSin = 0.99664719 * Math.sin(tU) + (seaLevel / 6378140.0) * sinLat;
+		sqrtSeaLevel = Math.pow(seaLevel, 0.5);
+	}
+	
+	private void prepareRefraction() {
+		refractionFactor = (pressure / 1010.0) * (283 / (273 + temperature));
 	}
 }
@@ -0,0 +1,222 @@
+package net.sourceforge.jitl.astro;
+
+/**
+ * Ephemeris evaluating the VSOP87 and nutation series of consecutive days by
+ * recurrence. Every term of the series is a cosine (or a sine) of an angle
+ * growing by a fixed step each day, so once the sine and cosine of all the
+ * terms are known for one day, the next day only needs the angle addition
+ * formulas: four multiplications per term instead of a call to Math.cos.
+ * <p>
+ * The terms are evaluated exactly on the first day of a run (the anchor) and
+ * again every <code>anchorDays</code> consecutive days, which bounds the
+ * rounding drift of the recurrence. A day that is not the day after the
+ * previous one starts a new run. The nutation arguments have small square
+ * and cube terms, so their daily step is taken between the anchor and the
+ * next day.
+ * <p>
+ * An anchor day gives the same values as
+ * <code>AstroLib.computeAstroDay</code>, bit for bit. With the default of 64
+ * days, over 1900 to 2100 the right ascension, declination and sidereal time
+ * of the other days stay within 3e-11 degree of the series (1e-8 second of
+ * prayer time) and the distance within 1e-14 astronomical unit. A run of
+ * consecutive days costs about a fifth of the series. Random days cost about
+ * 1.7 times the series, since the anchor computes both the sine and the
+ * cosine of every term.
+ * <p>
+ * An instance keeps the state of its current run, so it is only useful to a
+ * single caller walking consecutive days, such as a Jitl instance computing
+ * a range or a timetable. Calls are synchronized, so sharing an instance is
+ * safe but breaks the runs.
+ */
+public class RecurrenceEphemeris implements Ephemeris {
+
+	/**
+	 * Default number of consecutive days between two exact evaluations
+	 */
+	public static final int DEFAULT_ANCHOR_DAYS = 64;
+
+	private static final int[] START = AstroLib.SERIES_START;
+
+	private static final int SERIES = START.length - 1;
+
+	private static final int L0 = AstroLib.SERIES_L0,
+			B0 = AstroLib.SERIES_B0, R0 = AstroLib.SERIES_R0;
+
+	private static final double[] AMPLITUDE = AstroLib.SERIES_AMPLITUDE;
+
+	private static final double[] PHASE = AstroLib.SERIES_PHASE;
+
+	private static final double[] FREQUENCY = AstroLib.SERIES_FREQUENCY;
+
+	private static final int NUTATION_TERMS = AstroLib.NUTATION_TERMS;
+
+	/* One day in Julian millennia, the time unit of the series */
+	private static final double DAY_JM = 1 / 365250.0;
+
+	/* Cosine and sine of the daily step of every series term */
+	private static final double[] STEP_COS = new double[AMPLITUDE.length];
+
+	private static final double[] STEP_SIN = new double[AMPLITUDE.length];
+
+	static {
+		for (int k = 0; k < AMPLITUDE.length; k++) {
+			STEP_COS[k] = Math.cos(FREQUENCY[k] * DAY_JM);
+			STEP_SIN[k] = Math.sin(FREQUENCY[k] * DAY_JM);
+		}
+	}
+
+	private final int anchorDays;
+
+	/* Cosine and sine of every series term on the current day */
+	private final double[] cos = new double[AMPLITUDE.length];
+
+	private final double[] sin = new double[AMPLITUDE.length];
+
+	/* Sine and cosine of every nutation argument on the current day, and
+	 * of its daily step */
+	private final double[] nutSin = new double[NUTATION_TERMS];
+
+	private final double[] nutCos = new double[NUTATION_TERMS];
+
+	private final double[] nutStepCos = new double[NUTATION_TERMS];
+
+	private final double[] nutStepSin = new double[NUTATION_TERMS];
+
+	private final double[] sums = new double[SERIES];
+
+	/* Nutation arguments on the anchor day and their daily step */
+	private final double[] args = new double[5];
+
+	private final double[] argSteps = new double[5];
+
+	private double lastDay = Double.NaN;
+
+	private int steps;
+
+	private long anchors;
+
+	/**
+	 * Creates an ephemeris evaluating the series exactly every
+	 * DEFAULT_ANCHOR_DAYS consecutive days
+	 */
+	public RecurrenceEphemeris() {
+		this(DEFAULT_ANCHOR_DAYS);
+	}
+
+	/**
+	 * Creates an ephemeris
+	 * @param anchorDays number of consecutive days between two exact
+	 *  evaluations of the series, 1 making every day exact
+	 */
+	public RecurrenceEphemeris(int anchorDays) {
+		if (anchorDays < 1)
+			throw new IllegalArgumentException("Invalid anchor interval: "
+					+ anchorDays);
+		this.anchorDays = anchorDays;
+	}
+
+	public synchronized void computeAstroDay(double julianDay,
+			AstroDay astroday) {
+		double JC, JM, JM2, JM3, JM4, JM5, tL, tB, R;
+		double psi = 0, epsilon = 0;
+		int s, k;
+
+		if (julianDay == lastDay + 1 && steps + 1 < anchorDays) {
+			advance();
+			steps++;
+		} else if (julianDay != lastDay) {
+			anchor(julianDay);
+			steps = 0;
+		}
+		lastDay = julianDay;
+
+		for (s = 0; s < SERIES; s++) {
+			double sum = 0;
+			for (k = START[s]; k < START[s + 1]; k++)
+				sum += AMPLITUDE[k] * cos[k];
+			sums[s] = sum;
+		}
+
+		/* As in AstroLib.computeAstroDay */
+		JC = (julianDay - 2451545) / 36525.0;
+		JM = JC / 10.0;
+		JM2 = Math.pow(JM, 2);
+		JM3 = Math.pow(JM, 3);
+		JM4 = Math.pow(JM, 4);
+		JM5 = Math.pow(JM, 5);
+
+		tL = (sums[L0] + (sums[L0 + 1] * JM) + (sums[L0 + 2] * JM2)
+				+ (sums[L0 + 3] * JM3) + (sums[L0 + 4] * JM4)
+				+ (sums[L0 + 5] * JM5)) / Math.pow(10, 8);
+		tB = (sums[B0] + (sums[B0 + 1] * JM)) / Math.pow(10, 8);
+		R = (sums[R0] + (sums[R0 + 1] * JM) + (sums[R0 + 2] * JM2)
+				+ (sums[R0 + 3] * JM3) + (sums[R0 + 4] * JM4)) / Math.pow(10, 8);
+
+		for (k = 0; k < NUTATION_TERMS; k++) {
+			psi += (AstroLib.NUTATION_PSI[k] + JC * AstroLib.NUTATION_PSI_T[k])
+					* nutSin[k];
+			epsilon += (AstroLib.NUTATION_EPS[k] + JC
+					* AstroLib.NUTATION_EPS_T[k]) * nutCos[k];
+		}
+
+		AstroLib.completeAstroDay(julianDay, tL, tB, R, psi, epsilon, astroday);
+	}
+
+	/**
+	 * @return number of exact evaluations of the series so far
+	 */
+	public synchronized long getAnchorCount() {
+		return anchors;
+	}
+
+	/* Exact sine and cosine of every term */
+	private void anchor(double julianDay) {
+		double JC = (julianDay - 2451545) / 36525.0;
+		double nextJC = (julianDay + 1 - 2451545) / 36525.0;
+		double JM = JC / 10.0;
+		int i, k;
+
+		for (k = 0; k < AMPLITUDE.length; k++) {
+			double angle = PHASE[k] + FREQUENCY[k] * JM;
+			cos[k] = Math.cos(angle);
+			sin[k] = Math.sin(angle);
+		}
+
+		for (i = 0; i < 5; i++) {
+			args[i] = AstroLib.nutationArgument(i, JC);
+			argSteps[i] = AstroLib.nutationArgument(i, nextJC) - args[i];
+		}
+		for (k = 0; k < NUTATION_TERMS; k++) {
+			double arg = 0, step = 0;
+			for (i = 0; i < 5; i++) {
+				arg += args[i] * AstroLib.NUTATION_MULTIPLES[5 * k + i];
+				step += argSteps[i] * AstroLib.NUTATION_MULTIPLES[5 * k + i];
+			}
+			nutSin[k] = Math.sin(Utils.DEG_TO_RAD(arg));
+			nutCos[k] = Math.cos(Utils.DEG_TO_RAD(arg));
+			nutStepSin[k] = Math.sin(Utils.DEG_TO_RAD(step));
+			nutStepCos[k] = Math.cos(Utils.DEG_TO_RAD(step));
+		}
+		anchors++;
+	}
+
+	/* Moves every term one day forward */
+	private void advance() {
+		int k;
+		double c, s;
+
+		for (k = 0; k < AMPLITUDE.length; k++) {
+			c = cos[k];
+			s = sin[k];
+			cos[k] = c * STEP_COS[k] - s * STEP_SIN[k];
+			sin[k] = s * STEP_COS[k] + c * STEP_SIN[k];
+		}
+		for (k = 0; k < NUTATION_TERMS; k++) {
+			c = nutCos[k];
+			s = nutSin[k];
+			nutCos[k] = c * nutStepCos[k] - s * nutStepSin[k];
+			nutSin[k] = s * nutStepCos[k] + c * nutStepSin[k];
+		}
+	}
+
+}
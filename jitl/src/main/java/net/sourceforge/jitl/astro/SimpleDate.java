@@ -31,10 +31,31 @@ public class SimpleDate {
 		this.year = gCalendar.get(GregorianCalendar.YEAR);		
 	}
 	
+	/**
+	 * Creates the date of an epoch day
+	 * @param epochDay days since 1 January 1970
+	 * @return a new SimpleDate
+	 * @see EpochDay
+	 */
+	public static SimpleDate fromEpochDay(int epochDay) {
+		SimpleDate date = new SimpleDate(1, 1, 1970);
+		EpochDay.toDate(epochDay, date);
+		return date;
+	}
+	
 	public SimpleDate copy() {
 		return new SimpleDate(day, month, year);
 	}
 	
+	/**
+	 * @return days since 1 January 1970. A day past the end of its month
+	 *  continues into the next one.
+	 * @see EpochDay
+	 */
+	public int toEpochDay() {
+		return EpochDay.of(year, month, day);
+	}
+	
 	public int getDay() {
 		return day;
 	}
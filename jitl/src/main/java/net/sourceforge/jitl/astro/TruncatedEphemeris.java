@@ -0,0 +1,222 @@
+package net.sourceforge.jitl.astro;
+
+/**
+ * Lower precision ephemeris evaluating truncated VSOP87 and nutation series:
+ * the terms with an amplitude under a threshold are dropped, and the
+ * nutation can be skipped altogether. It is meant for widgets and rough
+ * lookups, where a few seconds do not matter but the cost of a day does.
+ * <p>
+ * The amplitudes are in the units of the series, 1e-8 radian for the
+ * longitude and latitude and 1e-8 astronomical unit for the distance; the
+ * nutation terms are compared in the same unit of angle. The threshold is
+ * compared to the raw amplitude, so it drops fewer terms of the L1 to L5 and
+ * R1 to R4 series (multiplied by powers of the time in millennia) than their
+ * actual size would allow.
+ * <p>
+ * Largest difference of the prayer times with the full series, in seconds,
+ * every day from 1900 to 2100 at latitudes up to 48 and up to 65 degrees,
+ * the times being truncated to the second. The latitudes were taken every 5
+ * degrees, at longitude 13.4 and GMT+1, with the Muslim World League angles
+ * and no extreme latitude method; only times valid with both series count:
+ * <table summary="Error of the truncated series">
+ * <tr><th>minimum amplitude</th><th>terms</th><th>up to 48</th>
+ * <th>up to 65</th><th>up to 48, no nutation</th>
+ * <th>up to 65, no nutation</th></tr>
+ * <tr><td>0 (full)</td><td>195 + 63</td><td>0</td><td>0</td><td>3</td>
+ * <td>23</td></tr>
+ * <tr><td>10</td><td>161 + 10</td><td>1</td><td>1</td><td>3</td>
+ * <td>23</td></tr>
+ * <tr><td>100</td><td>69 + 3</td><td>1</td><td>2</td><td>3</td>
+ * <td>23</td></tr>
+ * <tr><td>300</td><td>43 + 2</td><td>1</td><td>5</td><td>3</td>
+ * <td>26</td></tr>
+ * <tr><td>1000</td><td>25 + 1</td><td>2</td><td>13</td><td>3</td>
+ * <td>30</td></tr>
+ * <tr><td>10000</td><td>10 + 0</td><td>5</td><td>44</td><td>5</td>
+ * <td>44</td></tr>
+ * </table>
+ * The larger differences at high latitudes come from the days the sun
+ * barely goes under the horizon angle, where a small change of declination
+ * moves the time a lot. Being maxima over this grid, the values are not
+ * bounds for other places: other longitudes sample other moments of the day
+ * and can show a few seconds more, and much more above 48 degrees. The mean
+ * difference stays under a second in every case. A day of
+ * <code>STANDARD</code> costs about 30% of the full series, one of
+ * <code>ROUGH</code> about 20%.
+ */
+public class TruncatedEphemeris implements Ephemeris {
+
+	/**
+	 * Terms of amplitude 100 and over
+	 */
+	public static final TruncatedEphemeris STANDARD = new TruncatedEphemeris(
+			100, true);
+
+	/**
+	 * Terms of amplitude 1000 and over
+	 */
+	public static final TruncatedEphemeris ROUGH = new TruncatedEphemeris(
+			1000, true);
+
+	/* 1e-8 radian in 1e-4 arc second */
+	private static final double NUTATION_UNITS = 1e-4 * 180 * 3600 / Math.PI;
+
+	private final double minAmplitude;
+
+	private final boolean nutation;
+
+	/* The kept terms, in the layout of the AstroLib flat tables */
+	private final int[] start;
+
+	private final double[] amplitude, phase, frequency;
+
+	private final double[] psi, psiT, eps, epsT;
+
+	private final int[] multiples;
+
+	/**
+	 * Creates a truncated series
+	 * @param minAmplitude terms of a smaller amplitude are dropped
+	 * @param nutation false to skip the nutation series
+	 */
+	public TruncatedEphemeris(double minAmplitude, boolean nutation) {
+		int series = AstroLib.SERIES_START.length - 1;
+		int n = 0, s, k;
+
+		this.minAmplitude = minAmplitude;
+		this.nutation = nutation;
+
+		for (k = 0; k < AstroLib.SERIES_AMPLITUDE.length; k++)
+			if (kept(k))
+				n++;
+		start = new int[series + 1];
+		amplitude = new double[n];
+		phase = new double[n];
+		frequency = new double[n];
+
+		n = 0;
+		for (s = 0; s < series; s++) {
+			start[s] = n;
+			for (k = AstroLib.SERIES_START[s]; k < AstroLib.SERIES_START[s + 1]; k++) {
+				if (kept(k)) {
+					amplitude[n] = AstroLib.SERIES_AMPLITUDE[k];
+					phase[n] = AstroLib.SERIES_PHASE[k];
+					frequency[n] = AstroLib.SERIES_FREQUENCY[k];
+					n++;
+				}
+			}
+		}
+		start[series] = n;
+
+		n = 0;
+		for (k = 0; k < AstroLib.NUTATION_TERMS; k++)
+			if (nutationKept(k))
+				n++;
+		psi = new double[n];
+		psiT = new double[n];
+		eps = new double[n];
+		epsT = new double[n];
+		multiples = new int[5 * n];
+		n = 0;
+		for (k = 0; k < AstroLib.NUTATION_TERMS; k++) {
+			if (nutationKept(k)) {
+				psi[n] = AstroLib.NUTATION_PSI[k];
+				psiT[n] = AstroLib.NUTATION_PSI_T[k];
+				eps[n] = AstroLib.NUTATION_EPS[k];
+				epsT[n] = AstroLib.NUTATION_EPS_T[k];
+				System.arraycopy(AstroLib.NUTATION_MULTIPLES, 5 * k,
+						multiples, 5 * n, 5);
+				n++;
+			}
+		}
+	}
+
+	private boolean kept(int k) {
+		return Math.abs(AstroLib.SERIES_AMPLITUDE[k]) >= minAmplitude;
+	}
+
+	/* The nutation amplitudes are in 1e-4 arc second */
+	private boolean nutationKept(int k) {
+		return nutation
+				&& Math.max(Math.abs(AstroLib.NUTATION_PSI[k]), Math
+						.abs(AstroLib.NUTATION_EPS[k])) >= minAmplitude
+						* NUTATION_UNITS;
+	}
+
+	public void computeAstroDay(double julianDay, AstroDay astroday) {
+		double JC = (julianDay - 2451545) / 36525.0;
+		double JM = JC / 10.0;
+		double JM2 = Math.pow(JM, 2);
+		double JM3 = Math.pow(JM, 3);
+		double JM4 = Math.pow(JM, 4);
+		double JM5 = Math.pow(JM, 5);
+		double tL, tB, R;
+		double dPsi = 0, dEps = 0;
+		int L0 = AstroLib.SERIES_L0, B0 = AstroLib.SERIES_B0, R0 = AstroLib.SERIES_R0;
+
+		/* As in AstroLib.computeAstroDay */
+		tL = (sum(L0, JM) + (sum(L0 + 1, JM) * JM) + (sum(L0 + 2, JM) * JM2)
+				+ (sum(L0 + 3, JM) * JM3) + (sum(L0 + 4, JM) * JM4) + (sum(
+				L0 + 5, JM) * JM5))
+				/ Math.pow(10, 8);
+		tB = (sum(B0, JM) + (sum(B0 + 1, JM) * JM)) / Math.pow(10, 8);
+		R = (sum(R0, JM) + (sum(R0 + 1, JM) * JM) + (sum(R0 + 2, JM) * JM2)
+				+ (sum(R0 + 3, JM) * JM3) + (sum(R0 + 4, JM) * JM4))
+				/ Math.pow(10, 8);
+
+		if (psi.length > 0) {
+			double X0 = AstroLib.nutationArgument(0, JC);
+			double X1 = AstroLib.nutationArgument(1, JC);
+			double X2 = AstroLib.nutationArgument(2, JC);
+			double X3 = AstroLib.nutationArgument(3, JC);
+			double X4 = AstroLib.nutationArgument(4, JC);
+			int[] m = multiples;
+
+			for (int i = 0; i < psi.length; i++) {
+				double xsum = X0 * m[5 * i] + X1 * m[5 * i + 1] + X2
+						* m[5 * i + 2] + X3 * m[5 * i + 3] + X4 * m[5 * i + 4];
+				dPsi += (psi[i] + JC * psiT[i]) * Math.sin(Utils.DEG_TO_RAD(xsum));
+				dEps += (eps[i] + JC * epsT[i]) * Math.cos(Utils.DEG_TO_RAD(xsum));
+			}
+		}
+
+		AstroLib.completeAstroDay(julianDay, tL, tB, R, dPsi, dEps, astroday);
+	}
+
+	/**
+	 * @return number of VSOP87 terms kept
+	 */
+	public int getTermCount() {
+		return amplitude.length;
+	}
+
+	/**
+	 * @return number of nutation terms kept
+	 */
+	public int getNutationTermCount() {
+		return psi.length;
+	}
+
+	/**
+	 * @return the minimum amplitude of the kept terms
+	 */
+	public double getMinAmplitude() {
+		return minAmplitude;
+	}
+
+	/**
+	 * @return true if the nutation series is evaluated
+	 */
+	public boolean hasNutation() {
+		return nutation;
+	}
+
+	private double sum(int series, double JM) {
+		double sum = 0;
+
+		for (int k = start[series]; k < start[series + 1]; k++)
+			sum += amplitude[k] * Math.cos(phase[k] + frequency[k] * JM);
+		return sum;
+	}
+
+}
@@ -0,0 +1,83 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.EphemerisCache;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchCalculatorTest {
+
+    private static final double GMT_DIFF = 2;
+    private static final int COUNT = 1200;
+
+    private final double[] lat = new double[COUNT];
+    private final double[] lon = new double[COUNT];
+    private final double[] seaLevel = new double[COUNT];
+
+    public BatchCalculatorTest() {
+        // -60 to 70 degrees of latitude, so some days use the extreme methods
+        for (int i = 0; i < COUNT; i++) {
+            lat[i] = -60 + 130.0 * i / COUNT;
+            lon[i] = 10 + (i * 7 % 400) / 20.0;
+            seaLevel[i] = i % 5 * 300;
+        }
+    }
+
+    @Test
+    public void testSingleThread() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            check(new BatchCalculator(Method.MUSLIM_LEAGUE, Ephemeris.VSOP87, pool, 16), Method.MUSLIM_LEAGUE, new SimpleDate(21, 6, 2024));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BatchCalculator batch = new BatchCalculator(Method.EGYPT_SURVEY, EphemerisCache.shared(), pool, 16);
+            check(batch, Method.EGYPT_SURVEY, new SimpleDate(21, 12, 2024));
+            check(batch, Method.EGYPT_SURVEY, new SimpleDate(29, 2, 2024));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultPool() {
+        check(new BatchCalculator(Method.ISNA), Method.ISNA, new SimpleDate(1, 3, 2025));
+    }
+
+    private void check(BatchCalculator batch, Method method, SimpleDate date) {
+        DayPrayers[] out = new DayPrayers[COUNT];
+        PrayerTable table = new PrayerTable(COUNT);
+        batch.getPrayerTimes(date, GMT_DIFF, 0, lat, lon, seaLevel, out);
+        batch.getPrayerTimes(date, GMT_DIFF, 0, lat, lon, seaLevel, table);
+
+        DayPrayers fromTable = new DayPrayers();
+        for (int i = 0; i < COUNT; i++) {
+            Location loc = new Location(lat[i], lon[i], GMT_DIFF, 0);
+            loc.setSeaLevel(seaLevel[i]);
+            DayPrayers expected = new Jitl(loc, method.copy()).getPrayerTimes(date);
+            table.get(i, fromTable);
+
+            assertSameDay("location " + i, expected, out[i]);
+            assertSameDay("table row " + i, expected, fromTable);
+        }
+    }
+
+    private static void assertSameDay(String message, DayPrayers expected, DayPrayers actual) {
+        assertEquals(message, expected.toString(), actual.toString());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(message, expected.getPrayers()[i].isExtreme(), actual.getPrayers()[i].isExtreme());
+        }
+    }
+}
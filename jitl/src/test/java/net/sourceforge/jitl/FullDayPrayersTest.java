@@ -0,0 +1,91 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FullDayPrayersTest {
+
+    private static final Location[] LOCATIONS = {
+            new Location(21.42, 39.83, 3, 0),
+            new Location(-33.87, 151.21, 10, 1),
+            new Location(59.91, 10.75, 1, 0),
+            new Location(66.5, 25.73, 2, 0) };
+
+    @Test
+    public void testPresets() {
+        check(Method.MUSLIM_LEAGUE.copy());
+        check(Method.UMM_ALQURRA.copy());
+        check(Method.KARACHI_HANAF.copy());
+    }
+
+    @Test
+    public void testImsaakInterval() {
+        Method method = Method.ISNA.copy();
+        method.setImsaakInv(20);
+        check(method);
+    }
+
+    @Test
+    public void testImsaakAngle() {
+        Method method = Method.EGYPT_SURVEY.copy();
+        method.setImsaakAng(3);
+        check(method);
+    }
+
+    @Test
+    public void testFajrInterval() {
+        // Imsaak then defaults to ten minutes before fajr
+        Method method = Method.MUSLIM_LEAGUE.copy();
+        method.setFajrInv(90);
+        check(method);
+    }
+
+    @Test
+    public void testOffsets() {
+        Method method = Method.MUSLIM_LEAGUE.copy();
+        method.setOffset(true);
+        method.setFajrOffset(-3);
+        method.setThuhrOffset(1.5);
+        method.setIshaaOffset(2);
+        check(method);
+
+        method.setImsaakInv(15);
+        check(method);
+    }
+
+    // The single pass must give exactly the three separate calculations
+    private static void check(Method method) {
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        for (Location loc : LOCATIONS) {
+            Jitl full = new Jitl(loc, method);
+            Jitl imsaak = new Jitl(loc, method);
+            Jitl day = new Jitl(loc, method);
+            Jitl nextFajr = new Jitl(loc, method);
+            FullDayPrayers pt = new FullDayPrayers();
+
+            // Every 3rd day of 2024, so month and year ends fall in
+            for (int i = 0; i < 130; i++) {
+                EpochDay.toDate(EpochDay.of(2023, 12, 30) + i * 3, date);
+                full.getFullDayPrayers(date, pt);
+                String at = loc.getDegreeLat() + " " + date.getYear() + "-" + date.getMonth() + "-" + date.getDay();
+
+                assertSame(at + " imsaak", imsaak.getImsaak(date), pt.imsaak());
+                Prayer[] expected = day.getPrayerTimes(date).getPrayers();
+                for (int p = 0; p < 6; p++) {
+                    assertSame(at + " prayer " + p, expected[p], pt.getPrayers()[p]);
+                }
+                assertSame(at + " next fajr", nextFajr.getNextDayFajr(date), pt.nextFajr());
+            }
+        }
+    }
+
+    private static void assertSame(String message, Prayer expected, Prayer actual) {
+        assertEquals(message, expected.toString(), actual.toString());
+        assertEquals(message, expected.isExtreme(), actual.isExtreme());
+    }
+}
@@ -0,0 +1,93 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the indexed nearest good day search with a day by day search,
+ * done here on the times of the same method without extreme latitude
+ * correction. A good day is a day where both fajr and ishaa are valid.
+ */
+public class GoodDayTest {
+
+    private static final int FIRST = EpochDay.of(2024, 1, 1);
+    private static final int DAYS = 366;
+    // Days searched on each side
+    private static final int MAX_DISTANCE = 366;
+
+    @Test
+    public void testHighLatitudes() {
+        for (double lat = 65; lat <= 70; lat += 1) {
+            check(new Location(lat, 18.95, 1, 0), Method.MUSLIM_LEAGUE);
+            check(new Location(lat, -51.72, -3, 0), Method.ISNA);
+        }
+    }
+
+    @Test
+    public void testSouthernHighLatitude() {
+        check(new Location(-67.5, 62.87, 5, 0), Method.EGYPT_SURVEY);
+    }
+
+    private static void check(Location loc, Method preset) {
+        Method none = preset.copy();
+        none.setExtremeLatitude(ExtremeLatitude.NONE_EX);
+        Method all = preset.copy();
+        all.setExtremeLatitude(ExtremeLatitude.GOOD_ALL);
+        Method invalid = preset.copy();
+        invalid.setExtremeLatitude(ExtremeLatitude.GOOD_INVALID);
+
+        // Plain times of the year and of the days searched around it
+        Jitl plain = new Jitl(loc, none);
+        DayPrayers[] days = plain.getPrayerTimesRange(SimpleDate.fromEpochDay(FIRST - MAX_DISTANCE), DAYS + 2 * MAX_DISTANCE);
+
+        Jitl goodAll = new Jitl(loc, all);
+        Jitl goodInvalid = new Jitl(loc, invalid);
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        for (int day = 0; day < DAYS; day++) {
+            EpochDay.toDate(FIRST + day, date);
+            int index = MAX_DISTANCE + day;
+            DayPrayers own = days[index];
+            DayPrayers good = days[nearestGoodDay(days, index)];
+            String at = loc.getDegreeLat() + " " + date.getYear() + "-" + date.getMonth() + "-" + date.getDay();
+
+            DayPrayers actual = goodAll.getPrayerTimes(date);
+            assertEquals(at + " GOOD_ALL", good.toString(), actual.toString());
+            for (Prayer p : actual.getPrayers()) {
+                assertTrue(at, p.isExtreme());
+            }
+
+            actual = goodInvalid.getPrayerTimes(date);
+            Prayer[] expected = own.getPrayers().clone();
+            if (!isValid(own.fajr())) expected[0] = good.fajr();
+            if (!isValid(own.ishaa())) expected[5] = good.ishaa();
+            for (int i = 0; i < 6; i++) {
+                assertEquals(at + " GOOD_INVALID " + i, expected[i].toString(), actual.getPrayers()[i].toString());
+            }
+            assertEquals(at, !isValid(own.fajr()), actual.fajr().isExtreme());
+            assertEquals(at, !isValid(own.ishaa()), actual.ishaa().isExtreme());
+        }
+    }
+
+    // The old search: the day itself, then one day further on each side, the previous day first
+    private static int nearestGoodDay(DayPrayers[] days, int index) {
+        for (int i = 0; i <= MAX_DISTANCE; i++) {
+            if (isGood(days[index - i])) return index - i;
+            if (isGood(days[index + i])) return index + i;
+        }
+        throw new AssertionError("No good day within a year");
+    }
+
+    private static boolean isGood(DayPrayers day) {
+        return isValid(day.fajr()) && isValid(day.ishaa());
+    }
+
+    private static boolean isValid(Prayer p) {
+        return p.getHour() != 99;
+    }
+}
@@ -0,0 +1,74 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class JitlAllocationTest {
+
+    private static final int WARMUP_CALLS = 2000;
+    private static final int MEASURED_CALLS = 1000;
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void testMidLatitudeDoesNotAllocate() {
+        Jitl itl = new Jitl(new Location(43.467, -80.517, -5, 0), Method.ISNA.copy());
+        assertEquals(0, allocatedBytesPerCall(itl));
+    }
+
+    @Test
+    public void testNearestGoodDayDoesNotAllocate() {
+        // Fajr and Ishaa are invalid in June at this latitude, so GOOD_INVALID kicks in
+        Jitl itl = new Jitl(new Location(60.17, 24.94, 2, 0), Method.MUSLIM_LEAGUE.copy());
+        assertEquals(0, allocatedBytesPerCall(itl));
+    }
+
+    @Test
+    public void testNearestLatitudeDoesNotAllocate() {
+        Method method = Method.MUSLIM_LEAGUE.copy();
+        method.setExtremeLatitude(ExtremeLatitude.LAT_ALL);
+        Jitl itl = new Jitl(new Location(60.17, 24.94, 2, 0), method);
+        assertEquals(0, allocatedBytesPerCall(itl));
+    }
+
+    /**
+     * Alternates between two consecutive days so that both the cached and the
+     * shifted astro window paths are exercised, and returns the number of bytes
+     * allocated per call once warmed up.
+     */
+    private long allocatedBytesPerCall(Jitl itl) {
+        SimpleDate today = new SimpleDate(21, 6, 2024);
+        SimpleDate tomorrow = new SimpleDate(22, 6, 2024);
+        DayPrayers prayers = new DayPrayers();
+
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            itl.getPrayerTimes((i & 1) == 0 ? today : tomorrow, prayers);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            itl.getPrayerTimes((i & 1) == 0 ? today : tomorrow, prayers);
+        }
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+
+        return (after - before) / MEASURED_CALLS;
+    }
+}
@@ -0,0 +1,65 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JitlRangeTest {
+
+    private static final Location[] LOCATIONS = {
+            new Location(21.42, 39.83, 3, 0),
+            new Location(43.47, -80.52, -5, 0),
+            new Location(-33.87, 151.21, 10, 0),
+            new Location(64.13, -21.94, 0, 0) };
+
+    @Test
+    public void testRangeMatchesSingleDays() {
+        // Crosses Feb 29, the ends of every month and the end of the year
+        SimpleDate start = new SimpleDate(20, 2, 2024);
+        int days = 340;
+
+        for (Location loc : LOCATIONS) {
+            Jitl range = new Jitl(loc, Method.MUSLIM_LEAGUE.copy());
+            Jitl single = new Jitl(loc, Method.MUSLIM_LEAGUE.copy());
+            DayPrayers[] buffer = range.getPrayerTimesRange(start, days);
+
+            SimpleDate date = new SimpleDate(1, 1, 1970);
+            for (int day = 0; day < days; day++) {
+                EpochDay.toDate(EpochDay.of(start) + day, date);
+                assertSameDay(date, single.getPrayerTimes(date), buffer[day]);
+            }
+            assertEquals(1, date.getMonth());
+            assertEquals(2025, date.getYear());
+        }
+    }
+
+    @Test
+    public void testRangeFromEpochDayReusesBuffer() {
+        Jitl range = new Jitl(LOCATIONS[1], Method.ISNA.copy());
+        Jitl single = new Jitl(LOCATIONS[1], Method.ISNA.copy());
+        DayPrayers[] buffer = new DayPrayers[5];
+        DayPrayers first = new DayPrayers();
+        buffer[0] = first;
+
+        // Dec 29 2023 to Jan 2 2024
+        range.getPrayerTimesRange(EpochDay.of(2023, 12, 29), 5, buffer);
+        assertEquals(first, buffer[0]);
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        for (int day = 0; day < 5; day++) {
+            EpochDay.toDate(EpochDay.of(2023, 12, 29) + day, date);
+            assertSameDay(date, single.getPrayerTimes(date), buffer[day]);
+        }
+    }
+
+    private static void assertSameDay(SimpleDate date, DayPrayers expected, DayPrayers actual) {
+        String day = date.getYear() + "-" + date.getMonth() + "-" + date.getDay();
+        assertEquals(day, expected.toString(), actual.toString());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(day, expected.getPrayers()[i].isExtreme(), actual.getPrayers()[i].isExtreme());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Ephemeris;
+import net.sourceforge.jitl.astro.EphemerisCache;
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrayerCalculatorTest {
+
+    private static final int THREADS = 8;
+    private static final int DAYS = 120;
+
+    private static final Location[] LOCATIONS = {
+            new Location(21.42, 39.83, 3, 0),
+            new Location(43.47, -80.52, -5, 0),
+            new Location(-33.87, 151.21, 10, 0),
+            new Location(59.91, 10.75, 1, 0),
+            new Location(33.69, 73.05, 5, 0),
+            new Location(-6.21, 106.85, 7, 0),
+            new Location(51.51, -0.13, 0, 0),
+            new Location(64.13, -21.94, 0, 0) };
+
+    @Test
+    public void testSharedCalculatorMatchesJitl() throws Exception {
+        check(new PrayerCalculator(LOCATIONS[0], Method.MUSLIM_LEAGUE));
+    }
+
+    @Test
+    public void testSharedCalculatorWithTinyCache() throws Exception {
+        // Threads keep replacing each other's days in a cache of 16 slots
+        check(new PrayerCalculator(LOCATIONS[0], Method.MUSLIM_LEAGUE, new EphemerisCache(Ephemeris.VSOP87, 16)));
+    }
+
+    private static void check(PrayerCalculator calculator) throws Exception {
+        int first = EpochDay.of(2024, 1, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                results.add(pool.submit(new Callable<List<String>>() {
+                    public List<String> call() throws Exception {
+                        start.await();
+                        return compute(calculator, thread, first);
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (int t = 0; t < THREADS; t++) {
+                List<String> actual = results.get(t).get();
+                List<String> expected = expected(t, first);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals("thread " + t + " day " + i, expected.get(i), actual.get(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Each thread walks its own dates, and all the locations, in an order of its own
+    private static List<String> compute(PrayerCalculator calculator, int thread, int first) {
+        List<String> out = new ArrayList<>();
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        FullDayPrayers pt = new FullDayPrayers();
+        for (int i = 0; i < DAYS; i++) {
+            PrayerCalculator worker = calculator.withLocation(LOCATIONS[(thread + i) % LOCATIONS.length]);
+            EpochDay.toDate(first + thread * 37 + i * 3, date);
+            worker.getFullDayPrayers(date, pt);
+            out.add(describe(pt));
+        }
+        return out;
+    }
+
+    private static List<String> expected(int thread, int first) {
+        List<String> out = new ArrayList<>();
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        for (int i = 0; i < DAYS; i++) {
+            Jitl itl = new Jitl(LOCATIONS[(thread + i) % LOCATIONS.length], Method.MUSLIM_LEAGUE.copy());
+            EpochDay.toDate(first + thread * 37 + i * 3, date);
+            out.add(describe(itl.getFullDayPrayers(date)));
+        }
+        return out;
+    }
+
+    private static String describe(FullDayPrayers pt) {
+        StringBuilder out = new StringBuilder(pt.toString());
+        for (Prayer p : pt.getPrayers()) {
+            out.append(p.isExtreme() ? '*' : '-');
+        }
+        return out.append(pt.imsaak().isExtreme()).append(pt.nextFajr().isExtreme()).toString();
+    }
+}
@@ -0,0 +1,87 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrayerEngineTest {
+
+    private static final Location[] LOCATIONS = {
+            new Location(21.42, 39.83, 3, 0),
+            new Location(43.47, -80.52, -5, 0),
+            new Location(-33.87, 151.21, 10, 0),
+            new Location(59.91, 10.75, 1, 0) };
+
+    @Test
+    public void testTableMatchesReference() {
+        SimpleDate first = new SimpleDate(1, 1, 2024);
+        PrayerEngine.Factory table = PrayerEngines.table(PrayerEngines.REFERENCE, first, 366);
+
+        for (Location loc : LOCATIONS) {
+            PrayerEngine reference = PrayerEngines.REFERENCE.create(loc, Method.MUSLIM_LEAGUE.copy());
+            PrayerEngine engine = table.create(loc, Method.MUSLIM_LEAGUE.copy());
+
+            // One day on each side of the table goes to the source
+            for (int day = -1; day <= 366; day++) {
+                SimpleDate date = SimpleDate.fromEpochDay(EpochDay.of(first) + day);
+                assertEquals(day >= 0 && day < 366, ((TableEngine) engine).contains(date));
+                assertEquals(date.getYear() + "-" + date.getMonth() + "-" + date.getDay(),
+                        full(reference, date), full(engine, date));
+            }
+        }
+    }
+
+    @Test
+    public void testFastStaysNearReference() {
+        SimpleDate date = new SimpleDate(1, 1, 2024);
+        // Rounded minutes would turn a second of difference into sixty
+        Method method = Method.MUSLIM_LEAGUE.copy();
+        method.setRound(Rounding.NONE);
+
+        for (Location loc : LOCATIONS) {
+            PrayerEngine reference = PrayerEngines.REFERENCE.create(loc, method);
+            PrayerEngine fast = PrayerEngines.FAST.create(loc, method);
+            FullDayPrayers expected = new FullDayPrayers();
+            FullDayPrayers actual = new FullDayPrayers();
+
+            for (int day = 0; day < 366; day += 5) {
+                EpochDay.toDate(EpochDay.of(2024, 1, 1) + day, date);
+                reference.getFullDayPrayers(date, expected);
+                fast.getFullDayPrayers(date, actual);
+
+                for (int i = 0; i < 6; i++) {
+                    Prayer e = expected.getPrayers()[i];
+                    Prayer a = actual.getPrayers()[i];
+                    assertEquals(e.isExtreme(), a.isExtreme());
+                    assertTrue(Math.abs(seconds(a) - seconds(e)) <= 5);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testJitlIsAnEngine() {
+        Jitl itl = new Jitl(LOCATIONS[0], Method.UMM_ALQURRA.copy());
+        PrayerEngine engine = itl;
+        SimpleDate date = new SimpleDate(15, 3, 2025);
+
+        assertEquals(itl.getFullDayPrayers(date).toString(), full(engine, date));
+        assertFalse(PrayerEngines.FAST.getName().equals(PrayerEngines.REFERENCE.getName()));
+    }
+
+    private static String full(PrayerEngine engine, SimpleDate date) {
+        FullDayPrayers pt = new FullDayPrayers();
+        engine.getFullDayPrayers(date, pt);
+        return pt.toString();
+    }
+
+    private static int seconds(Prayer p) {
+        return p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond();
+    }
+}
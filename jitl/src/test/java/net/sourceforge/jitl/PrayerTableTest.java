@@ -0,0 +1,137 @@
+package net.sourceforge.jitl;
+
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PrayerTableTest {
+
+    @Test
+    public void testNewTableIsInvalid() {
+        PrayerTable table = new PrayerTable(3);
+        for (int row = 0; row < 3; row++) {
+            for (int p = 0; p < PrayerTable.PRAYERS; p++) {
+                assertEquals(PrayerTable.INVALID, table.getSecondsOfDay(row, p));
+                assertFalse(table.isExtreme(row, p));
+            }
+        }
+    }
+
+    @Test
+    public void testExtremeBitsAcrossWords() {
+        // Row 10 holds times 60 to 65, so its ASSR and MAGHRIB lie on each side of the first word
+        PrayerTable table = new PrayerTable(40);
+        table.set(10, PrayerTable.ASSR, 100, true);
+        table.set(10, PrayerTable.MAGHRIB, 200, true);
+        checkOnlyExtremes(table, 10 * 6 + 3, 10 * 6 + 4);
+
+        table.set(10, PrayerTable.ASSR, 100, false);
+        checkOnlyExtremes(table, 10 * 6 + 4);
+        table.set(10, PrayerTable.MAGHRIB, 200, false);
+        table.set(21, PrayerTable.SHURUQ, 300, true); // Time 127, last bit of the second word
+        table.set(39, PrayerTable.ISHAA, 400, true); // Last time of the table
+        checkOnlyExtremes(table, 21 * 6 + 1, 39 * 6 + 5);
+
+        // Clearing a switch keeps the time
+        assertEquals(200, table.getSecondsOfDay(10, PrayerTable.MAGHRIB));
+    }
+
+    @Test
+    public void testDayPrayersRoundTrip() {
+        Jitl itl = new Jitl(new Location(66.5, 25.73, 2, 0), Method.MUSLIM_LEAGUE.copy());
+        PrayerTable table = new PrayerTable(2);
+        DayPrayers read = new DayPrayers();
+
+        for (int month = 1; month <= 12; month++) {
+            DayPrayers pt = itl.getPrayerTimes(new SimpleDate(15, month, 2024));
+            table.set(month % 2, pt);
+            table.get(month % 2, read);
+            for (int p = 0; p < PrayerTable.PRAYERS; p++) {
+                assertEquals(pt.getPrayers()[p].toString(), read.getPrayers()[p].toString());
+                assertEquals(pt.getPrayers()[p].isExtreme(), read.getPrayers()[p].isExtreme());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidTimeRoundTrip() {
+        DayPrayers pt = new DayPrayers();
+        Prayer[] prayers = pt.getPrayers();
+        for (int p = 0; p < PrayerTable.PRAYERS; p++) {
+            prayers[p].setHour(5 + p);
+            prayers[p].setMinute(7);
+            prayers[p].setSecond(9);
+        }
+        prayers[PrayerTable.FAJR].setHour(99);
+        prayers[PrayerTable.FAJR].setMinute(99);
+        prayers[PrayerTable.FAJR].setExtreme(true);
+        prayers[PrayerTable.ISHAA].setHour(25); // Past midnight, brought back into the day
+
+        PrayerTable table = new PrayerTable(1);
+        table.set(0, pt);
+        assertEquals(PrayerTable.INVALID, table.getSecondsOfDay(0, PrayerTable.FAJR));
+        assertTrue(table.isExtreme(0, PrayerTable.FAJR));
+        assertEquals(3600 + 7 * 60 + 9, table.getSecondsOfDay(0, PrayerTable.ISHAA));
+
+        DayPrayers read = new DayPrayers();
+        table.get(0, read);
+        assertEquals(99, read.fajr().getHour());
+        assertEquals(99, read.fajr().getMinute());
+        assertEquals(0, read.fajr().getSecond());
+        assertTrue(read.fajr().isExtreme());
+        assertEquals(1, read.ishaa().getHour());
+
+        PrayerTable.Day day = table.day(0);
+        assertFalse(day.isValid(PrayerTable.FAJR));
+        assertEquals(99, day.getHour(PrayerTable.FAJR));
+        assertEquals(99, day.getMinute(PrayerTable.FAJR));
+        assertEquals(read.toString(), day.toString());
+    }
+
+    @Test
+    public void testDayViewFollowsTheTable() {
+        PrayerTable table = new PrayerTable(3);
+        PrayerTable.Day day = table.day(1);
+        assertFalse(day.isValid(PrayerTable.THUHR));
+
+        // Written after the view was made
+        table.set(1, PrayerTable.THUHR, 12 * 3600 + 34 * 60 + 56, true);
+        assertTrue(day.isValid(PrayerTable.THUHR));
+        assertEquals(12, day.getHour(PrayerTable.THUHR));
+        assertEquals(34, day.getMinute(PrayerTable.THUHR));
+        assertEquals(56, day.getSecond(PrayerTable.THUHR));
+        assertTrue(day.isExtreme(PrayerTable.THUHR));
+
+        table.set(1, PrayerTable.THUHR, 13 * 3600, false);
+        assertEquals(13, day.getHour(PrayerTable.THUHR));
+        assertFalse(day.isExtreme(PrayerTable.THUHR));
+
+        // The same view walks to another row
+        table.set(2, PrayerTable.FAJR, 4 * 3600, false);
+        assertSame(day, day.moveTo(2));
+        assertEquals(2, day.getRow());
+        assertEquals(4, day.getHour(PrayerTable.FAJR));
+        assertFalse(day.isValid(PrayerTable.THUHR));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testMoveOutOfTable() {
+        new PrayerTable(3).day(0).moveTo(3);
+    }
+
+    private static void checkOnlyExtremes(PrayerTable table, int... times) {
+        for (int i = 0; i < table.getRowCount() * PrayerTable.PRAYERS; i++) {
+            boolean expected = false;
+            for (int t : times) {
+                expected |= t == i;
+            }
+            assertEquals("time " + i, expected, table.isExtreme(i / PrayerTable.PRAYERS, i % PrayerTable.PRAYERS));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package net.sourceforge.jitl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+import net.sourceforge.jitl.astro.EpochDay;
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TimetableFileTest {
+
+    @Test
+    public void testReadsWhatTheRangeComputes() throws IOException {
+        ZoneId zone = ZoneId.of("America/New_York");
+        SimpleDate first = new SimpleDate(1, 1, 2024);
+        int days = 400;
+        Location[] locations = { new Location(40.71, -74.01, 0, 0), new Location(43.47, -80.52, 0, 0) };
+        Path file = Files.createTempFile("timetable", ".jtt");
+
+        try {
+            TimetableFile.write(file, Method.ISNA.copy(), "ISNA", zone, first, days,
+                    new String[] { "New York", "Waterloo" }, locations);
+            TimetableFile table = TimetableFile.open(file);
+
+            assertEquals(zone, table.getZone());
+            assertEquals("ISNA", table.getMethodName());
+            assertEquals("Waterloo", table.getLocationName(1));
+            assertEquals(43.47, table.getLocation(1).getDegreeLat(), 0);
+            assertEquals(days, table.getDayCount());
+            assertFalse(table.contains(EpochDay.of(first) + days));
+
+            for (int l = 0; l < locations.length; l++) {
+                Jitl itl = new Jitl(locations[l], Method.ISNA.copy());
+                long[] epochs = new long[days * PrayerTable.PRAYERS];
+                DayPrayers[] range = new DayPrayers[days];
+                DayPrayers pt = new DayPrayers();
+
+                itl.getEpochSecondsRange(first, days, zone, epochs);
+                itl.getPrayerTimesRange(first, days, zone, range);
+
+                for (int d = 0; d < days; d++) {
+                    int epochDay = EpochDay.of(first) + d;
+                    assertTrue(table.contains(epochDay));
+                    table.get(l, epochDay, pt);
+                    assertEquals(range[d].toString(), pt.toString());
+                    for (int p = 0; p < PrayerTable.PRAYERS; p++)
+                        assertEquals(epochs[d * PrayerTable.PRAYERS + p], table.getEpochSecond(l, epochDay, p));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadsTheMethodBack() throws IOException {
+        Method method = new Method(17.5, 16.25, 2, 80, 75, 15, Rounding.AGRESSIVE, Mathhab.HANAFI,
+                50.5, ExtremeLatitude.SEVEN_NIGHT_INVALID, true, -1, 2, 3.5, -4, 0.5, 6);
+        Path file = Files.createTempFile("timetable", ".jtt");
+
+        try {
+            TimetableFile.write(file, method, "Custom", ZoneId.of("Europe/Oslo"), new SimpleDate(1, 1, 2024), 3,
+                    new String[] { "Oslo" }, new Location[] { new Location(59.91, 10.75, 0, 0) });
+            TimetableFile table = TimetableFile.open(file);
+            Method read = table.getMethod();
+
+            assertEquals("Custom", table.getMethodName());
+            assertEquals(method.toString(), read.toString());
+            assertEquals(17.5, read.getFajrAng(), 0);
+            assertEquals(16.25, read.getIshaaAng(), 0);
+            assertEquals(2, read.getImsaakAng(), 0);
+            assertEquals(80, read.getFajrInv());
+            assertEquals(75, read.getIshaaInv());
+            assertEquals(15, read.getImsaakInv());
+            assertSame(Rounding.AGRESSIVE, read.getRound());
+            assertSame(Mathhab.HANAFI, read.getMathhab());
+            assertEquals(50.5, read.getNearestLat(), 0);
+            assertSame(ExtremeLatitude.SEVEN_NIGHT_INVALID, read.getExtremeLatitude());
+            assertTrue(read.getOffset());
+            assertEquals(-1, read.getFajrOffset(), 0);
+            assertEquals(2, read.getShurooqOffset(), 0);
+            assertEquals(3.5, read.getThuhrOffset(), 0);
+            assertEquals(-4, read.getAssrOffset(), 0);
+            assertEquals(0.5, read.getMaghribOffset(), 0);
+            assertEquals(6, read.getIshaaOffset(), 0);
+
+            // The location still follows the method
+            assertEquals("Oslo", table.getLocationName(0));
+            assertEquals(10.75, table.getLocation(0).getDegreeLong(), 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testEveryMethodSettingIsWritten() throws IOException {
+        // Each constant must have its code, or write fails
+        ExtremeLatitude[] extremes = { ExtremeLatitude.NONE_EX, ExtremeLatitude.LAT_ALL, ExtremeLatitude.LAT_ALWAYS,
+                ExtremeLatitude.LAT_INVALID, ExtremeLatitude.GOOD_ALL, ExtremeLatitude.GOOD_INVALID,
+                ExtremeLatitude.SEVEN_NIGHT_ALWAYS, ExtremeLatitude.SEVEN_NIGHT_INVALID, ExtremeLatitude.SEVEN_DAY_ALWAYS,
+                ExtremeLatitude.SEVEN_DAY_INVALID, ExtremeLatitude.HALF_ALWAYS, ExtremeLatitude.HALF_INVALID,
+                ExtremeLatitude.MIN_ALWAYS, ExtremeLatitude.MIN_INVALID, ExtremeLatitude.GOOD_DIF };
+        Rounding[] roundings = { Rounding.NONE, Rounding.NORMAL, Rounding.SPECIAL, Rounding.AGRESSIVE };
+        Path file = Files.createTempFile("timetable", ".jtt");
+
+        try {
+            for (int i = 0; i < extremes.length; i++) {
+                Method method = Method.MUSLIM_LEAGUE.copy();
+                method.setExtremeLatitude(extremes[i]);
+                method.setRound(roundings[i % roundings.length]);
+                method.setMathhab(i % 2 == 0 ? Mathhab.SHAAFI : Mathhab.HANAFI);
+                TimetableFile.write(file, method, "", ZoneId.of("UTC"), new SimpleDate(1, 1, 2024), 0,
+                        new String[0], new Location[0]);
+                assertEquals(method.toString(), TimetableFile.open(file).getMethod().toString());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package net.sourceforge.jitl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import net.sourceforge.jitl.astro.Location;
+import net.sourceforge.jitl.astro.SimpleDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ZoneOffsetsTest {
+
+    private static final String[] ZONES = { "America/New_York", "Europe/London",
+            "Australia/Sydney", "Asia/Tehran", "Asia/Riyadh", "Africa/Casablanca" };
+
+    @Test
+    public void testMatchesZoneRulesAtNoon() {
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            ZoneOffsets offsets = new ZoneOffsets(zone);
+
+            for (LocalDate day = LocalDate.of(2000, 1, 1); day.getYear() < 2040; day = day.plusDays(1)) {
+                int expected = zone.getRules().getOffset(day.atTime(12, 0)).getTotalSeconds();
+                assertEquals(id + " " + day, expected, offsets.getOffsetSeconds((int) day.toEpochDay()));
+            }
+        }
+    }
+
+    @Test
+    public void testRangeFollowsDaylightSavingTime() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        LocalDate first = LocalDate.of(2024, 3, 1);
+        DayPrayers[] range = new DayPrayers[300];
+
+        new Jitl(new Location(40.71, -74.01, 0, 0), Method.ISNA.copy())
+                .getPrayerTimesRange(new SimpleDate(1, 3, 2024), range.length, zone, range);
+
+        for (int i = 0; i < range.length; i++) {
+            LocalDate day = first.plusDays(i);
+            double gmt = zone.getRules().getOffset(day.atTime(12, 0)).getTotalSeconds() / 3600.0;
+            DayPrayers expected = new Jitl(new Location(40.71, -74.01, gmt, 0), Method.ISNA.copy())
+                    .getPrayerTimes(new SimpleDate(day.getDayOfMonth(), day.getMonthValue(), day.getYear()));
+
+            for (int j = 0; j < 6; j++)
+                assertEquals(day + " " + j, expected.getPrayers()[j].toString(),
+                        range[i].getPrayers()[j].toString());
+        }
+    }
+
+    @Test
+    public void testEpochSecondsMatchTimesOfDay() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        Jitl itl = new Jitl(new Location(40.71, -74.01, 0, 0), Method.ISNA.copy());
+        DayPrayers[] range = new DayPrayers[366];
+        long[] epochSeconds = new long[366 * PrayerTable.PRAYERS];
+
+        itl.getPrayerTimesRange(new SimpleDate(1, 1, 2024), range.length, zone, range);
+        itl.getEpochSecondsRange(new SimpleDate(1, 1, 2024), range.length, zone, epochSeconds);
+
+        for (int i = 0; i < range.length; i++) {
+            for (int j = 0; j < PrayerTable.PRAYERS; j++) {
+                Prayer p = range[i].getPrayers()[j];
+                ZonedDateTime time = Instant.ofEpochSecond(epochSeconds[i * PrayerTable.PRAYERS + j]).atZone(zone);
+
+                assertEquals(LocalDate.of(2024, 1, 1).plusDays(i), time.toLocalDate());
+                assertEquals(p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond(),
+                        time.toLocalTime().toSecondOfDay());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package net.sourceforge.jitl.astro;
+
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.Prayer;
+import net.sourceforge.jitl.Rounding;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class ChebyshevEphemerisTest {
+
+    // Bounds stated in the class comment
+    private static final double MAX_ANGLE_ERROR = 4e-6;
+    private static final double MAX_DISTANCE_ERROR = 1e-8;
+
+    @Test
+    public void testFitStaysNearSeries() {
+        ChebyshevEphemeris fast = new ChebyshevEphemeris(Ephemeris.VSOP87,
+                ChebyshevEphemeris.DEFAULT_SPAN_DAYS, ChebyshevEphemeris.DEFAULT_DEGREE, 8);
+        AstroDay expected = new AstroDay();
+        AstroDay actual = new AstroDay();
+
+        // Four years from 2023, at the Julian days of GMT differences from -12 to +14
+        double first = 2459945.5;
+        for (int day = 0; day < 4 * 366; day++) {
+            double jd = first + day - (day % 27 - 12) / 24.0;
+            Ephemeris.VSOP87.computeAstroDay(jd, expected);
+            fast.computeAstroDay(jd, actual);
+
+            String at = "jd " + jd;
+            assertNear(at + " ra", expected.getRa(), actual.getRa(), MAX_ANGLE_ERROR);
+            assertNear(at + " dec", expected.getDec(), actual.getDec(), MAX_ANGLE_ERROR);
+            assertNear(at + " sidtime", expected.getSidtime(), actual.getSidtime(), MAX_ANGLE_ERROR);
+            assertNear(at + " dra", expected.getDra(), actual.getDra(), MAX_ANGLE_ERROR);
+            assertTrue(at + " rsum", Math.abs(expected.getRsum() - actual.getRsum()) <= MAX_DISTANCE_ERROR);
+        }
+    }
+
+    @Test
+    public void testPrayerTimesMatchSeries() {
+        Method method = Method.MUSLIM_LEAGUE.copy();
+        method.setRound(Rounding.NONE);
+        Location loc = new Location(59.91, 10.75, 1, 0);
+        Jitl reference = new Jitl(loc, method);
+        reference.setEphemeris(Ephemeris.VSOP87);
+        Jitl fast = new Jitl(loc, method);
+        fast.setEphemeris(ChebyshevEphemeris.shared());
+
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        for (int day = 0; day < 366; day++) {
+            EpochDay.toDate(EpochDay.of(2024, 1, 1) + day, date);
+            Prayer[] expected = reference.getPrayerTimes(date).getPrayers();
+            Prayer[] actual = fast.getPrayerTimes(date).getPrayers();
+            for (int i = 0; i < expected.length; i++) {
+                // Whole seconds, so a 0.01 second difference may flip one
+                assertTrue(date.getMonth() + "/" + date.getDay() + " prayer " + i,
+                        Math.abs(seconds(expected[i]) - seconds(actual[i])) <= 1);
+            }
+        }
+    }
+
+    private static void assertNear(String message, double expected, double actual, double tolerance) {
+        double difference = Math.abs(Math.IEEEremainder(expected - actual, 360));
+        assertTrue(message + ": " + difference, difference <= tolerance);
+    }
+
+    private static int seconds(Prayer p) {
+        return p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond();
+    }
+}
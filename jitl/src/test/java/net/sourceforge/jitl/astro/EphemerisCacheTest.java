@@ -0,0 +1,118 @@
+package net.sourceforge.jitl.astro;
+
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.Method;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class EphemerisCacheTest {
+
+    private static final double JD_2024 = 2460310.5;
+
+    @Test
+    public void testCachedValuesMatchSource() {
+        EphemerisCache cache = new EphemerisCache(Ephemeris.VSOP87, 64);
+        AstroDay expected = new AstroDay();
+        AstroDay actual = new AstroDay();
+
+        // Twice over more days than the cache holds: misses, hits and evictions
+        for (int pass = 0; pass < 2; pass++) {
+            for (int day = 0; day < 400; day++) {
+                double jd = JD_2024 + day + (day % 3) / 24.0;
+                Ephemeris.VSOP87.computeAstroDay(jd, expected);
+                cache.computeAstroDay(jd, actual);
+                assertSameValues(expected, actual);
+                cache.computeAstroDay(jd, actual);
+                assertSameValues(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testPrayerTimesMatchUncached() {
+        Location loc = new Location(43.47, -80.52, -5, 0);
+        Jitl cached = new Jitl(loc, Method.ISNA.copy());
+        cached.setEphemeris(new EphemerisCache(Ephemeris.VSOP87, 8));
+        Jitl uncached = new Jitl(loc, Method.ISNA.copy());
+        uncached.setEphemeris(Ephemeris.VSOP87);
+
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+        for (int day = 0; day < 366; day++) {
+            EpochDay.toDate(EpochDay.of(2024, 1, 1) + day, date);
+            assertEquals(uncached.getFullDayPrayers(date).toString(), cached.getFullDayPrayers(date).toString());
+        }
+    }
+
+    @Test
+    public void testCounters() {
+        EphemerisCache cache = new EphemerisCache(Ephemeris.VSOP87, 64);
+        AstroDay astroday = new AstroDay();
+
+        cache.computeAstroDay(JD_2024, astroday);
+        assertCounts(cache, 0, 1, 0);
+        cache.computeAstroDay(JD_2024, astroday);
+        cache.computeAstroDay(JD_2024, astroday);
+        assertCounts(cache, 2, 1, 0);
+        cache.computeAstroDay(JD_2024 + 1, astroday);
+        assertCounts(cache, 2, 2, 0);
+
+        cache.resetStatistics();
+        assertCounts(cache, 0, 0, 0);
+        cache.computeAstroDay(JD_2024 + 1, astroday);
+        assertCounts(cache, 1, 0, 0);
+
+        // Clearing drops the days but not the counters
+        cache.clear();
+        cache.computeAstroDay(JD_2024 + 1, astroday);
+        assertCounts(cache, 1, 1, 0);
+        assertEquals(64, cache.getCapacity());
+        assertEquals(128, new EphemerisCache(Ephemeris.VSOP87, 100).getCapacity());
+    }
+
+    @Test
+    public void testCollisionIsComputedAgain() {
+        EphemerisCache cache = new EphemerisCache(Ephemeris.VSOP87, 4);
+        double first = JD_2024;
+        double second = first + 1;
+        while (slot(second, 2) != slot(first, 2)) second++;
+
+        AstroDay expected = new AstroDay();
+        AstroDay actual = new AstroDay();
+        cache.computeAstroDay(first, actual);
+        cache.computeAstroDay(second, actual);
+        assertCounts(cache, 0, 2, 1);
+
+        // The first day was replaced, so it is computed again, with its own values
+        cache.computeAstroDay(first, actual);
+        assertCounts(cache, 0, 3, 2);
+        Ephemeris.VSOP87.computeAstroDay(first, expected);
+        assertSameValues(expected, actual);
+
+        cache.computeAstroDay(first, actual);
+        assertCounts(cache, 1, 3, 2);
+        Ephemeris.VSOP87.computeAstroDay(second, expected);
+        assertNotEquals(expected.getDec(), actual.getDec(), 0);
+    }
+
+    // Slot of a day in a cache of 2^bits slots, as computed by the cache
+    private static int slot(double julianDay, int bits) {
+        return (int) ((Double.doubleToLongBits(julianDay) * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+    }
+
+    private static void assertCounts(EphemerisCache cache, long hits, long misses, long evictions) {
+        assertEquals(hits, cache.getHitCount());
+        assertEquals(misses, cache.getMissCount());
+        assertEquals(evictions, cache.getEvictionCount());
+    }
+
+    private static void assertSameValues(AstroDay expected, AstroDay actual) {
+        assertEquals(expected.getRa(), actual.getRa(), 0);
+        assertEquals(expected.getDec(), actual.getDec(), 0);
+        assertEquals(expected.getSidtime(), actual.getSidtime(), 0);
+        assertEquals(expected.getDra(), actual.getDra(), 0);
+        assertEquals(expected.getRsum(), actual.getRsum(), 0);
+    }
+}
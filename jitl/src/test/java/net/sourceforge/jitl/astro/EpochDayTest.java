@@ -0,0 +1,67 @@
+package net.sourceforge.jitl.astro;
+
+import java.time.LocalDate;
+
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.Prayer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpochDayTest {
+
+    @Test
+    public void testMatchesLocalDate() {
+        SimpleDate date = new SimpleDate(1, 1, 1970);
+
+        // 1583 to 2417, both sides of the epoch and several 400 year eras
+        for (int epochDay = -140000; epochDay <= 164000; epochDay++) {
+            LocalDate expected = LocalDate.ofEpochDay(epochDay);
+            EpochDay.toDate(epochDay, date);
+
+            assertEquals(expected.getYear(), date.getYear());
+            assertEquals(expected.getMonthValue(), date.getMonth());
+            assertEquals(expected.getDayOfMonth(), date.getDay());
+            assertEquals(epochDay, EpochDay.of(expected.getYear(),
+                    expected.getMonthValue(), expected.getDayOfMonth()));
+            assertEquals(expected.getYear(), EpochDay.yearOf(epochDay));
+            assertEquals(expected.getDayOfYear(), EpochDay.dayOfYear(epochDay));
+            assertEquals(expected.lengthOfYear(),
+                    EpochDay.lengthOfYear(expected.getYear()));
+        }
+    }
+
+    @Test
+    public void testDayPastEndOfMonth() {
+        assertEquals(EpochDay.of(2024, 3, 1), EpochDay.of(2024, 2, 30));
+        assertEquals(EpochDay.of(2025, 1, 1), EpochDay.of(2024, 12, 32));
+    }
+
+    @Test
+    public void testJulianDayMatchesAstroLib() {
+        double[] gmts = { -12, -3.5, 0, 1, 5.75, 14 };
+
+        for (int epochDay = -140000; epochDay <= 164000; epochDay += 7) {
+            SimpleDate date = SimpleDate.fromEpochDay(epochDay);
+            for (double gmt : gmts) {
+                double jd = EpochDay.toJulianDay(epochDay, gmt);
+                assertEquals(AstroLib.getJulianDay(date, gmt), jd, 0);
+                assertEquals(epochDay, EpochDay.fromJulianDay(jd + gmt / 24.0));
+            }
+        }
+    }
+
+    @Test
+    public void testNextDayImsaakCrossesYearEnd() {
+        Jitl itl = new Jitl(new Location(43.467, -80.517, -5, 0), Method.ISNA.copy());
+
+        Prayer next = itl.getNextDayImsaak(new SimpleDate(31, 12, 2024));
+        Prayer expected = itl.getImsaak(new SimpleDate(1, 1, 2025));
+
+        assertEquals(expected.getHour(), next.getHour());
+        assertEquals(expected.getMinute(), next.getMinute());
+        assertEquals(expected.getSecond(), next.getSecond());
+    }
+}
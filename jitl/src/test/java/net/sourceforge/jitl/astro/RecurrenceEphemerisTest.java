@@ -0,0 +1,69 @@
+package net.sourceforge.jitl.astro;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecurrenceEphemerisTest {
+
+    // Ten years of consecutive days from the end of 1999, at GMT+3
+    private static final double FIRST = 2451544.5 - 3 / 24.0;
+    private static final int DAYS = 3650;
+
+    @Test
+    public void testDefaultAnchorsStayWithinStatedBounds() {
+        // Bounds stated in the class comment
+        checkDrift(new RecurrenceEphemeris(), 3e-11, 1e-14, true);
+    }
+
+    @Test
+    public void testRecurrenceWithoutAnchorsDriftsSlowly() {
+        // Ten years on a single anchor, about 1e-9 degree measured
+        checkDrift(new RecurrenceEphemeris(DAYS), 1e-8, 1e-14, false);
+    }
+
+    @Test
+    public void testAnchorsAreExact() {
+        RecurrenceEphemeris ephemeris = new RecurrenceEphemeris(8);
+        AstroDay expected = new AstroDay();
+        AstroDay actual = new AstroDay();
+
+        for (int day = 0; day < 200; day++) {
+            ephemeris.computeAstroDay(FIRST + day, actual);
+            if (day % 8 != 0) continue;
+            Ephemeris.VSOP87.computeAstroDay(FIRST + day, expected);
+            assertEquals(expected.getRa(), actual.getRa(), 0);
+            assertEquals(expected.getDec(), actual.getDec(), 0);
+            assertEquals(expected.getSidtime(), actual.getSidtime(), 0);
+            assertEquals(expected.getRsum(), actual.getRsum(), 0);
+        }
+    }
+
+    private static void checkDrift(RecurrenceEphemeris ephemeris, double maxAngle, double maxDistance, boolean bounded) {
+        AstroDay expected = new AstroDay();
+        AstroDay actual = new AstroDay();
+        double firstYear = 0, lastYear = 0;
+
+        for (int day = 0; day < DAYS; day++) {
+            Ephemeris.VSOP87.computeAstroDay(FIRST + day, expected);
+            ephemeris.computeAstroDay(FIRST + day, actual);
+
+            double error = Math.max(angle(expected.getRa() - actual.getRa()),
+                    Math.max(Math.abs(expected.getDec() - actual.getDec()),
+                            angle(expected.getSidtime() - actual.getSidtime())));
+            assertTrue("day " + day + ": " + error, error <= maxAngle);
+            assertTrue("day " + day, Math.abs(expected.getRsum() - actual.getRsum()) <= maxDistance);
+            if (day < 365) firstYear = Math.max(firstYear, error);
+            if (day >= DAYS - 365) lastYear = Math.max(lastYear, error);
+        }
+        if (bounded) {
+            // Anchoring keeps the last year no worse than the first, give or take rounding
+            assertTrue(firstYear + " then " + lastYear, lastYear <= 10 * firstYear + 1e-13);
+        }
+    }
+
+    private static double angle(double difference) {
+        return Math.abs(Math.IEEEremainder(difference, 360));
+    }
+}
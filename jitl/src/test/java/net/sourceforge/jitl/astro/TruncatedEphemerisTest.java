@@ -0,0 +1,92 @@
+package net.sourceforge.jitl.astro;
+
+import net.sourceforge.jitl.ExtremeLatitude;
+import net.sourceforge.jitl.Jitl;
+import net.sourceforge.jitl.Method;
+import net.sourceforge.jitl.Prayer;
+import net.sourceforge.jitl.Rounding;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the error table of the class comment on its own grid, every 97th
+ * day from 1900 to 2100 instead of every day.
+ */
+public class TruncatedEphemerisTest {
+
+    // Minimum amplitude, terms, nutation terms, then the largest error up to 48 and up to 65 degrees
+    // with the nutation and without it
+    private static final double[][] TABLE = {
+            { 0, 195, 63, 0, 0, 3, 23 },
+            { 10, 161, 10, 1, 1, 3, 23 },
+            { 100, 69, 3, 1, 2, 3, 23 },
+            { 300, 43, 2, 1, 5, 3, 26 },
+            { 1000, 25, 1, 2, 13, 3, 30 },
+            { 10000, 10, 0, 5, 44, 5, 44 } };
+
+    private static final int FIRST = EpochDay.of(1900, 1, 1);
+    private static final int LAST = EpochDay.of(2100, 12, 31);
+    private static final int STEP = 97;
+
+    @Test
+    public void testTermCounts() {
+        for (double[] row : TABLE) {
+            TruncatedEphemeris ephemeris = new TruncatedEphemeris(row[0], true);
+            assertEquals((int) row[1], ephemeris.getTermCount());
+            assertEquals((int) row[2], ephemeris.getNutationTermCount());
+            assertEquals(0, new TruncatedEphemeris(row[0], false).getNutationTermCount());
+        }
+        assertEquals(100, TruncatedEphemeris.STANDARD.getMinAmplitude(), 0);
+        assertEquals(1000, TruncatedEphemeris.ROUGH.getMinAmplitude(), 0);
+    }
+
+    @Test
+    public void testErrorTable() {
+        Method method = Method.MUSLIM_LEAGUE.copy();
+        method.setRound(Rounding.NONE);
+        method.setExtremeLatitude(ExtremeLatitude.NONE_EX);
+
+        for (int lat = -65; lat <= 65; lat += 5) {
+            Location loc = new Location(lat, 13.4, 1, 0);
+            Jitl reference = new Jitl(loc, method);
+            reference.setEphemeris(Ephemeris.VSOP87);
+            int[][] expected = new int[(LAST - FIRST) / STEP + 1][];
+            for (int day = FIRST, i = 0; day <= LAST; day += STEP, i++) {
+                expected[i] = seconds(reference.getPrayerTimes(SimpleDate.fromEpochDay(day)).getPrayers());
+            }
+
+            for (double[] row : TABLE) {
+                for (int nutation = 0; nutation < 2; nutation++) {
+                    Jitl truncated = new Jitl(loc, method);
+                    truncated.setEphemeris(new TruncatedEphemeris(row[0], nutation == 0));
+                    double bound = row[3 + nutation * 2 + (Math.abs(lat) <= 48 ? 0 : 1)];
+
+                    for (int day = FIRST, i = 0; day <= LAST; day += STEP, i++) {
+                        int[] actual = seconds(truncated.getPrayerTimes(SimpleDate.fromEpochDay(day)).getPrayers());
+                        for (int p = 0; p < 6; p++) {
+                            if (expected[i][p] < 0 || actual[p] < 0) continue;
+                            int error = Math.abs(expected[i][p] - actual[p]);
+                            error = Math.min(error, 86400 - error);
+                            assertTrue("amplitude " + row[0] + (nutation == 0 ? "" : " without nutation")
+                                    + " at " + lat + " day " + day + " prayer " + p + ": " + error,
+                                    error <= bound);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Seconds of the day, -1 for a time that could not be computed
+    private static int[] seconds(Prayer[] prayers) {
+        int[] seconds = new int[prayers.length];
+        for (int i = 0; i < prayers.length; i++) {
+            Prayer p = prayers[i];
+            seconds[i] = p.getHour() == 99 ? -1 : p.getHour() * 3600 + p.getMinute() * 60 + p.getSecond();
+        }
+        return seconds;
+    }
+}